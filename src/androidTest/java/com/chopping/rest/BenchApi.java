@@ -0,0 +1,15 @@
+package com.chopping.rest;
+
+import retrofit2.Call;
+import retrofit2.http.Body;
+import retrofit2.http.POST;
+
+/**
+ * Retrofit service of {@link BenchServer}.
+ *
+ * @author Xinyue Zhao
+ */
+interface BenchApi {
+	@POST("bench")
+	Call<BenchObject> post( @Body BenchObject object );
+}
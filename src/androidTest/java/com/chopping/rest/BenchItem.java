@@ -0,0 +1,49 @@
+package com.chopping.rest;
+
+import io.realm.RealmObject;
+import io.realm.annotations.PrimaryKey;
+
+/**
+ * Database item of benchmarks.
+ *
+ * @author Xinyue Zhao
+ */
+public class BenchItem extends RealmObject {
+	@PrimaryKey
+	private String reqId;
+	private long   reqTime;
+	private int    status;
+	private String payload;
+
+	public String getReqId() {
+		return reqId;
+	}
+
+	public void setReqId( String reqId ) {
+		this.reqId = reqId;
+	}
+
+	public long getReqTime() {
+		return reqTime;
+	}
+
+	public void setReqTime( long reqTime ) {
+		this.reqTime = reqTime;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus( int status ) {
+		this.status = status;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload( String payload ) {
+		this.payload = payload;
+	}
+}
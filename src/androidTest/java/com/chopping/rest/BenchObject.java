@@ -0,0 +1,62 @@
+package com.chopping.rest;
+
+import io.realm.Realm;
+import io.realm.RealmObject;
+
+/**
+ * {@link RestObject} of benchmarks, stored as {@link BenchItem}.
+ *
+ * @author Xinyue Zhao
+ */
+public class BenchObject extends RestObject {
+	private String reqId;
+	private long   reqTime;
+	private String payload;
+
+	public BenchObject() {
+	}
+
+	public BenchObject( String reqId, long reqTime, String payload ) {
+		this.reqId = reqId;
+		this.reqTime = reqTime;
+		this.payload = payload;
+	}
+
+	@Override
+	public String getReqId() {
+		return reqId;
+	}
+
+	@Override
+	public long getReqTime() {
+		return reqTime;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	@Override
+	protected RealmObject[] newInstances( Realm db, int status ) {
+		if( status == DELETE_SYNCED ) {
+			BenchItem item = db.where( BenchItem.class )
+							   .equalTo(
+									   "reqId",
+									   reqId
+							   )
+							   .findFirst();
+			return item == null ? null : new RealmObject[] { item };
+		}
+		BenchItem item = new BenchItem();
+		item.setReqId( reqId );
+		item.setReqTime( reqTime );
+		item.setStatus( status );
+		item.setPayload( payload );
+		return new RealmObject[] { item };
+	}
+
+	@Override
+	public Class<? extends RealmObject> DBType() {
+		return BenchItem.class;
+	}
+}
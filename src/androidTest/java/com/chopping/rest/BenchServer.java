@@ -0,0 +1,95 @@
+package com.chopping.rest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import com.google.gson.Gson;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Local HTTP stand-in of a REST server for benchmarks. It echoes a posted {@link BenchObject} with a payload of a given
+ * size after a given latency, a given ratio of requests fails with HTTP 500.
+ *
+ * @author Xinyue Zhao
+ */
+final class BenchServer {
+	private final MockWebServer mServer = new MockWebServer();
+	private final Gson          mGson   = new Gson();
+	private final Random        mRandom = new Random( 42 );
+	private final long          mLatencyMs;
+	private final float         mErrorRate;
+	private final String        mPayload;
+
+	/**
+	 * @param latencyMs
+	 * 		Delay before each response in milliseconds.
+	 * @param errorRate
+	 * 		Ratio(0..1) of requests answered with HTTP 500.
+	 * @param payloadSize
+	 * 		Chars of payload in each response.
+	 */
+	BenchServer( long latencyMs, float errorRate, int payloadSize ) {
+		mLatencyMs = latencyMs;
+		mErrorRate = errorRate;
+		char[] payload = new char[ payloadSize ];
+		Arrays.fill(
+				payload,
+				'x'
+		);
+		mPayload = new String( payload );
+		mServer.setDispatcher( new Dispatcher() {
+			@Override
+			public MockResponse dispatch( RecordedRequest request ) throws InterruptedException {
+				return respond( request );
+			}
+		} );
+	}
+
+	void start() throws IOException {
+		mServer.start();
+	}
+
+	void shutdown() throws IOException {
+		mServer.shutdown();
+	}
+
+	/**
+	 * @return Base-url for Retrofit.
+	 */
+	String getUrl() {
+		return mServer.url( "/" )
+					  .toString();
+	}
+
+	private MockResponse respond( RecordedRequest request ) throws InterruptedException {
+		if( mLatencyMs > 0 ) {
+			Thread.sleep( mLatencyMs );
+		}
+		boolean fail;
+		synchronized( mRandom ) {
+			fail = mRandom.nextFloat() < mErrorRate;
+		}
+		if( fail ) {
+			return new MockResponse().setResponseCode( 500 );
+		}
+		BenchObject posted = mGson.fromJson(
+				request.getBody()
+					   .readUtf8(),
+				BenchObject.class
+		);
+		return new MockResponse().setHeader(
+				"Content-Type",
+				"application/json"
+		)
+								 .setBody( mGson.toJson( new BenchObject(
+										 posted.getReqId(),
+										 posted.getReqTime(),
+										 mPayload
+								 ) ) );
+	}
+}
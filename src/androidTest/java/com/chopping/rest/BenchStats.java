@@ -0,0 +1,146 @@
+package com.chopping.rest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import android.os.Build;
+import android.os.Debug;
+
+/**
+ * Samples of latency in nanoseconds for benchmarks, reports throughput and percentiles.
+ *
+ * @author Xinyue Zhao
+ */
+final class BenchStats {
+	private final String mName;
+	private       long[] mSamples;
+	private       int    mCount;
+	private       long   mStartTime;
+	private       long   mEndTime;
+	private       long   mStartHeap;
+	private       long   mEndHeap;
+	private       long   mStartAllocated;
+	private       long   mEndAllocated;
+
+	BenchStats( String name, int capacity ) {
+		mName = name;
+		mSamples = new long[ Math.max(
+				capacity,
+				16
+		) ];
+	}
+
+	/**
+	 * Start measuring wall-time and heap.
+	 */
+	void start() {
+		mCount = 0;
+		mStartHeap = usedHeap();
+		mStartAllocated = allocated();
+		mStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Stop measuring wall-time and heap.
+	 */
+	void stop() {
+		mEndTime = System.nanoTime();
+		mEndAllocated = allocated();
+		mEndHeap = usedHeap();
+	}
+
+	void add( long nanos ) {
+		if( mCount == mSamples.length ) {
+			mSamples = Arrays.copyOf(
+					mSamples,
+					mCount * 2
+			);
+		}
+		mSamples[ mCount++ ] = nanos;
+	}
+
+	int count() {
+		return mCount;
+	}
+
+	/**
+	 * @return Operations per second over wall-time.
+	 */
+	double throughput() {
+		long elapsed = mEndTime - mStartTime;
+		return elapsed <= 0 ? 0 : mCount * 1e9 / elapsed;
+	}
+
+	/**
+	 * @return Percentile {@code p}(0..100) of samples in milliseconds.
+	 */
+	double percentile( double p ) {
+		if( mCount == 0 ) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(
+				mSamples,
+				mCount
+		);
+		Arrays.sort( sorted );
+		int index = (int) Math.ceil( p / 100d * mCount ) - 1;
+		return sorted[ Math.max(
+				0,
+				Math.min(
+						index,
+						mCount - 1
+				)
+		) ] / 1e6;
+	}
+
+	/**
+	 * @return Growth of used heap in bytes per operation, it is approximate because of GC.
+	 */
+	double heapPerOp() {
+		return mCount == 0 ? 0 : ( mEndHeap - mStartHeap ) / (double) mCount;
+	}
+
+	/**
+	 * @return Bytes allocated per operation, {@code -1} if the runtime doesn't count allocations(before API 23).
+	 */
+	double allocatedPerOp() {
+		return mCount == 0 || mStartAllocated < 0 ? -1 : ( mEndAllocated - mStartAllocated ) / (double) mCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				Locale.US,
+				"%s: %d ops, %.1f ops/s, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, heap %.0f B/op, allocated %.0f B/op",
+				mName,
+				mCount,
+				throughput(),
+				percentile( 50 ),
+				percentile( 90 ),
+				percentile( 99 ),
+				heapPerOp(),
+				allocatedPerOp()
+		);
+	}
+
+	/**
+	 * Bytes allocated since start of process, counted by ART.
+	 */
+	private static long allocated() {
+		if( Build.VERSION.SDK_INT < Build.VERSION_CODES.M ) {
+			return -1;
+		}
+		String stat = Debug.getRuntimeStat( "art.gc.bytes-allocated" );
+		try {
+			return stat == null ? -1 : Long.parseLong( stat );
+		} catch( NumberFormatException e ) {
+			return -1;
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		runtime.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,222 @@
+package com.chopping.rest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import android.app.Application;
+import android.test.ApplicationTestCase;
+import android.util.Log;
+
+import io.realm.Realm;
+import io.realm.RealmConfiguration;
+
+/**
+ * Throughput of syncing children of Firebase into Realm. {@link LocalFirebase} stands in for the server, its
+ * child-events go through the same {@link FireChildSink} as {@link RestFireManager}, so that the Realm-writes and key
+ * index are measured without network.
+ * <p/>
+ * Results are logged with tag "FireSyncBench", run by:
+ * <pre>
+ * <code>
+ * ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.chopping.rest.FireSyncBenchmarkTest
+ * </code>
+ * </pre>
+ *
+ * @author Xinyue Zhao
+ */
+public class FireSyncBenchmarkTest extends ApplicationTestCase<Application> {
+	private static final String TAG      = "FireSyncBench";
+	private static final int    CHILDREN = 2000;
+	private static final int    WINDOW   = 200;
+	private static final String PAYLOAD  = new String( new char[ 256 ] ).replace(
+			'\0',
+			'x'
+	);
+
+	private RealmConfiguration mConfig;
+
+	public FireSyncBenchmarkTest() {
+		super( Application.class );
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mConfig = new RealmConfiguration.Builder( getContext() ).name( "fire-sync-bench.realm" )
+																.deleteRealmIfMigrationNeeded()
+																.build();
+		Realm.deleteRealm( mConfig );
+		Realm.setDefaultConfiguration( mConfig );
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Realm.deleteRealm( mConfig );
+		super.tearDown();
+	}
+
+	/**
+	 * Every child is added, changed and removed with a listener on the whole collection.
+	 */
+	public void testAddChangeRemove() {
+		LocalFirebase      fire    = new LocalFirebase();
+		Map<String, String> keys   = new HashMap<>();
+		BenchStats         stats   = new BenchStats(
+				"add/change/remove",
+				CHILDREN * 3
+		);
+		fire.query()
+			.addChildEventListener( new TimedListener(
+					new FireChildSink( keys ),
+					stats
+			) );
+		RealmSession.begin();
+		try {
+			stats.start();
+			for( int i = 0; i < CHILDREN; i++ ) {
+				fire.setValue(
+						key( i ),
+						child( i )
+				);
+			}
+			for( int i = 0; i < CHILDREN; i++ ) {
+				fire.setValue(
+						key( i ),
+						child( i )
+				);
+			}
+			for( int i = 0; i < CHILDREN; i++ ) {
+				fire.removeValue( key( i ) );
+			}
+			stats.stop();
+		} finally {
+			RealmSession.end();
+		}
+		Log.i(
+				TAG,
+				stats.toString()
+		);
+		assertEquals(
+				CHILDREN * 3,
+				stats.count()
+		);
+		assertTrue( keys.isEmpty() );
+		assertEquals(
+				0,
+				countItems()
+		);
+	}
+
+	/**
+	 * Children are pushed into a {@code limitToLast} window, every push evicts the oldest child, like {@link
+	 * RestFireManager#selectAll(Class)} while the server keeps growing.
+	 */
+	public void testLimitToLastWindow() {
+		LocalFirebase      fire  = new LocalFirebase();
+		Map<String, String> keys = new HashMap<>();
+		BenchStats         stats = new BenchStats(
+				"limitToLast(" + WINDOW + ")",
+				CHILDREN * 2
+		);
+		fire.query()
+			.orderByChild( "reqTime" )
+			.limitToLast( WINDOW )
+			.addChildEventListener( new TimedListener(
+					new FireChildSink( keys ),
+					stats
+			) );
+		RealmSession.begin();
+		try {
+			stats.start();
+			for( int i = 0; i < CHILDREN; i++ ) {
+				fire.setValue(
+						key( i ),
+						child( i )
+				);
+			}
+			stats.stop();
+		} finally {
+			RealmSession.end();
+		}
+		Log.i(
+				TAG,
+				stats.toString()
+		);
+		assertEquals(
+				WINDOW,
+				keys.size()
+		);
+		assertEquals(
+				WINDOW,
+				countItems()
+		);
+	}
+
+	private static String key( int i ) {
+		return String.format(
+				"-K%08d",
+				i
+		);
+	}
+
+	private static BenchObject child( int i ) {
+		return new BenchObject(
+				"req" + i,
+				i,
+				PAYLOAD
+		);
+	}
+
+	private long countItems() {
+		Realm db = Realm.getDefaultInstance();
+		try {
+			return db.where( BenchItem.class )
+					 .count();
+		} finally {
+			db.close();
+		}
+	}
+
+	/**
+	 * Feed child-events into {@link FireChildSink} and time each of them.
+	 */
+	private static final class TimedListener implements LocalFirebase.ChildListener {
+		private final FireChildSink mSink;
+		private final BenchStats    mStats;
+
+		private TimedListener( FireChildSink sink, BenchStats stats ) {
+			mSink = sink;
+			mStats = stats;
+		}
+
+		@Override
+		public void onChildAdded( String key, RestObject value ) {
+			long start = System.nanoTime();
+			mSink.added(
+					key,
+					value
+			);
+			mStats.add( System.nanoTime() - start );
+		}
+
+		@Override
+		public void onChildChanged( String key, RestObject value ) {
+			long start = System.nanoTime();
+			mSink.changed(
+					key,
+					value
+			);
+			mStats.add( System.nanoTime() - start );
+		}
+
+		@Override
+		public void onChildRemoved( String key, RestObject value ) {
+			long start = System.nanoTime();
+			mSink.removed(
+					key,
+					value
+			);
+			mStats.add( System.nanoTime() - start );
+		}
+	}
+}
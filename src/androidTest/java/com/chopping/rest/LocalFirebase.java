@@ -0,0 +1,321 @@
+package com.chopping.rest;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-process stand-in of a Firebase collection. It implements the part of child-event semantics that {@link
+ * RestFireManager} relies on: {@code limitToLast}, {@code orderByChild}, {@code endAt} and added/changed/removed
+ * callbacks, a child that leaves the window of a query is reported as removed.
+ * <p/>
+ * Every query keeps its children sorted and split into the window and the rest, a write is applied as a delta in
+ * {@code O(log n)}, so that a benchmark measures the listener and not this stand-in.
+ * <p/>
+ * Not thread-safe, callbacks are delivered synchronously on the calling thread.
+ *
+ * @author Xinyue Zhao
+ */
+final class LocalFirebase {
+	/**
+	 * Listener of child-events, like {@link com.firebase.client.ChildEventListener}.
+	 */
+	interface ChildListener {
+		void onChildAdded( String key, RestObject value );
+
+		void onChildChanged( String key, RestObject value );
+
+		void onChildRemoved( String key, RestObject value );
+	}
+
+	private final Map<String, RestObject> mChildren = new HashMap<>();
+	private final List<LocalQuery>        mQueries  = new ArrayList<>();
+	/**
+	 * Getters of child values, keyed by class and name.
+	 */
+	private static final Map<String, Method> sGetters = new HashMap<>();
+
+	LocalQuery query() {
+		return new LocalQuery();
+	}
+
+	void setValue( String key, RestObject value ) {
+		RestObject old = mChildren.put(
+				key,
+				value
+		);
+		for( LocalQuery query : new ArrayList<>( mQueries ) ) {
+			query.set(
+					key,
+					value,
+					old
+			);
+		}
+	}
+
+	void removeValue( String key ) {
+		RestObject old = mChildren.remove( key );
+		if( old != null ) {
+			for( LocalQuery query : new ArrayList<>( mQueries ) ) {
+				query.remove(
+						key,
+						old
+				);
+			}
+		}
+	}
+
+	int size() {
+		return mChildren.size();
+	}
+
+	/**
+	 * Value of child {@code name} of {@code value} through its getter, ie. "reqTime" by getReqTime().
+	 */
+	@SuppressWarnings("unchecked")
+	private static Comparable<Object> childValue( RestObject value, String name ) {
+		String id     = value.getClass()
+							 .getName() + "#" + name;
+		Method getter = sGetters.get( id );
+		try {
+			if( getter == null ) {
+				getter = value.getClass()
+							  .getMethod( "get" + Character.toUpperCase( name.charAt( 0 ) ) + name.substring( 1 ) );
+				sGetters.put(
+						id,
+						getter
+				);
+			}
+			return (Comparable<Object>) getter.invoke( value );
+		} catch( Exception e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * Position of a child in a query, by child value(if ordered) and key.
+	 */
+	private static final class SortKey implements Comparable<SortKey> {
+		private final Comparable<Object> mValue;
+		private final String             mKey;
+
+		private SortKey( Comparable<Object> value, String key ) {
+			mValue = value;
+			mKey = key;
+		}
+
+		@Override
+		public int compareTo( SortKey other ) {
+			int result = mValue == null ? ( other.mValue == null ? 0 : -1 ) : ( other.mValue == null ? 1 : mValue.compareTo( other.mValue ) );
+			return result != 0 ? result : mKey.compareTo( other.mKey );
+		}
+	}
+
+	/**
+	 * A query on the collection, like {@link com.firebase.client.Query}.
+	 */
+	final class LocalQuery {
+		private int                          mLimit    = Integer.MAX_VALUE;
+		private String                       mOrderBy;
+		private Object                       mEndAt;
+		private ChildListener                mListener;
+		/**
+		 * Children inside the window, they have been reported to listener.
+		 */
+		private final TreeMap<SortKey, String> mWindow   = new TreeMap<>();
+		/**
+		 * Children that match the query but are older than the window.
+		 */
+		private final TreeMap<SortKey, String> mOutside  = new TreeMap<>();
+		private final Map<String, SortKey>     mSortKeys = new HashMap<>();
+
+		LocalQuery limitToLast( int limit ) {
+			mLimit = limit;
+			return this;
+		}
+
+		LocalQuery orderByChild( String name ) {
+			mOrderBy = name;
+			return this;
+		}
+
+		/**
+		 * End at a key, or at a child value when {@link #orderByChild(String)} has been set.
+		 */
+		LocalQuery endAt( Object endAt ) {
+			mEndAt = endAt;
+			return this;
+		}
+
+		void addChildEventListener( ChildListener listener ) {
+			mListener = null;
+			clear();
+			for( Map.Entry<String, RestObject> child : mChildren.entrySet() ) {
+				insert(
+						child.getKey(),
+						child.getValue()
+				);
+				rebalance( null );
+			}
+			mListener = listener;
+			mQueries.add( this );
+			for( String key : mWindow.values() ) {
+				mListener.onChildAdded(
+						key,
+						mChildren.get( key )
+				);
+			}
+		}
+
+		void removeEventListener() {
+			mQueries.remove( this );
+			mListener = null;
+			clear();
+		}
+
+		private void clear() {
+			mWindow.clear();
+			mOutside.clear();
+			mSortKeys.clear();
+		}
+
+		/**
+		 * Apply a write of child {@code key}.
+		 */
+		private void set( String key, RestObject value, RestObject old ) {
+			boolean wasIn = detach( key );
+			boolean isIn  = insert(
+					key,
+					value
+			);
+			rebalance( key );
+			isIn = isIn && mWindow.containsKey( mSortKeys.get( key ) );
+			if( wasIn && isIn ) {
+				if( old != value ) {
+					mListener.onChildChanged(
+							key,
+							value
+					);
+				}
+			} else if( wasIn ) {
+				mListener.onChildRemoved(
+						key,
+						old
+				);
+			} else if( isIn ) {
+				mListener.onChildAdded(
+						key,
+						value
+				);
+			}
+		}
+
+		/**
+		 * Apply a removal of child {@code key}.
+		 */
+		private void remove( String key, RestObject old ) {
+			boolean wasIn = detach( key );
+			if( wasIn ) {
+				mListener.onChildRemoved(
+						key,
+						old
+				);
+			}
+			rebalance( key );
+		}
+
+		/**
+		 * Remove child {@code key} from index without any report.
+		 *
+		 * @return {@code true} if it was inside window.
+		 */
+		private boolean detach( String key ) {
+			SortKey sortKey = mSortKeys.remove( key );
+			if( sortKey == null ) {
+				return false;
+			}
+			if( mWindow.remove( sortKey ) != null ) {
+				return true;
+			}
+			mOutside.remove( sortKey );
+			return false;
+		}
+
+		/**
+		 * Put child {@code key} into index without any report.
+		 *
+		 * @return {@code true} if it matches the query.
+		 */
+		private boolean insert( String key, RestObject value ) {
+			Comparable<Object> childValue = mOrderBy == null ? null : childValue(
+					value,
+					mOrderBy
+			);
+			if( mEndAt != null ) {
+				int compared = mOrderBy == null ? key.compareTo( (String) mEndAt ) : ( childValue == null ? -1 : childValue.compareTo( mEndAt ) );
+				if( compared > 0 ) {
+					return false;
+				}
+			}
+			SortKey sortKey = new SortKey(
+					childValue,
+					key
+			);
+			mSortKeys.put(
+					key,
+					sortKey
+			);
+			//Outside holds only children older than the window, rebalance() trims an overfull window.
+			if( mOutside.isEmpty() || sortKey.compareTo( mOutside.lastKey() ) > 0 ) {
+				mWindow.put(
+						sortKey,
+						key
+				);
+			} else {
+				mOutside.put(
+						sortKey,
+						key
+				);
+			}
+			return true;
+		}
+
+		/**
+		 * Keep the newest {@link #mLimit} children in window, children that move in or out are reported except {@code
+		 * current} which is reported by caller.
+		 */
+		private void rebalance( String current ) {
+			while( mWindow.size() > mLimit ) {
+				Map.Entry<SortKey, String> evicted = mWindow.pollFirstEntry();
+				mOutside.put(
+						evicted.getKey(),
+						evicted.getValue()
+				);
+				if( mListener != null && !evicted.getValue()
+												 .equals( current ) ) {
+					mListener.onChildRemoved(
+							evicted.getValue(),
+							mChildren.get( evicted.getValue() )
+					);
+				}
+			}
+			while( mWindow.size() < mLimit && !mOutside.isEmpty() ) {
+				Map.Entry<SortKey, String> promoted = mOutside.pollLastEntry();
+				mWindow.put(
+						promoted.getKey(),
+						promoted.getValue()
+				);
+				if( mListener != null && !promoted.getValue()
+												  .equals( current ) ) {
+					mListener.onChildAdded(
+							promoted.getValue(),
+							mChildren.get( promoted.getValue() )
+					);
+				}
+			}
+		}
+	}
+}
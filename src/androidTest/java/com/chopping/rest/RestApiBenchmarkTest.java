@@ -0,0 +1,323 @@
+package com.chopping.rest;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.test.ApplicationTestCase;
+import android.util.Log;
+
+import com.chopping.bus.RestApiResponseEvent;
+
+import de.greenrobot.event.EventBus;
+import io.realm.Realm;
+import io.realm.RealmConfiguration;
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * End-to-end benchmark of {@link RestApiManager} against {@link BenchServer}: a Retrofit-call and the Realm-writes of
+ * status before and after it. Latency, error rate and payload size of the server are set per test.
+ * <p/>
+ * Results are logged with tag "RestApiBench". It is an instrumented test because Realm needs a device, on CI it runs
+ * on a headless emulator(ie. {@code emulator -no-window}) by:
+ * <pre>
+ * <code>
+ * ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.chopping.rest.RestApiBenchmarkTest
+ * </code>
+ * </pre>
+ *
+ * @author Xinyue Zhao
+ */
+public class RestApiBenchmarkTest extends ApplicationTestCase<Application> {
+	private static final String TAG      = "RestApiBench";
+	private static final int    WARM_UP  = 20;
+	private static final int    REQUESTS = 300;
+
+	private RealmConfiguration mConfig;
+	private RestApiManager     mManager;
+
+	public RestApiBenchmarkTest() {
+		super( Application.class );
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mConfig = new RealmConfiguration.Builder( getContext() ).name( "rest-api-bench.realm" )
+																.deleteRealmIfMigrationNeeded()
+																.build();
+		Realm.deleteRealm( mConfig );
+		Realm.setDefaultConfiguration( mConfig );
+		mManager = new RestApiManager();
+		mManager.onCreate();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Realm.deleteRealm( mConfig );
+		super.tearDown();
+	}
+
+	public void testSyncLocal() throws Exception {
+		runSync(
+				"sync, 0 ms, 0%, 256 B",
+				0,
+				0,
+				256
+		);
+	}
+
+	public void testSyncLatency() throws Exception {
+		runSync(
+				"sync, 20 ms, 0%, 256 B",
+				20,
+				0,
+				256
+		);
+	}
+
+	public void testSyncErrorsAndLargePayload() throws Exception {
+		runSync(
+				"sync, 0 ms, 10%, 16 KB",
+				0,
+				0.1f,
+				16 * 1024
+		);
+	}
+
+	public void testAsyncLatency() throws Exception {
+		runAsync(
+				"async, 20 ms, 0%, 256 B",
+				20,
+				0,
+				256
+		);
+	}
+
+	/**
+	 * Requests one after another by {@link RestApiManager#execSync(retrofit2.Call, RestObject)}, each one is timed.
+	 */
+	private void runSync( String name, long latencyMs, float errorRate, int payloadSize ) throws Exception {
+		BenchServer server = new BenchServer(
+				latencyMs,
+				errorRate,
+				payloadSize
+		);
+		server.start();
+		try {
+			BenchApi   api   = createApi( server );
+			BenchStats stats = new BenchStats(
+					name,
+					REQUESTS
+			);
+			for( int i = 0; i < WARM_UP; i++ ) {
+				mManager.execSync(
+						api.post( request( -1 - i ) ),
+						request( -1 - i )
+				);
+			}
+			stats.start();
+			for( int i = 0; i < REQUESTS; i++ ) {
+				BenchObject request = request( i );
+				long        start   = System.nanoTime();
+				mManager.execSync(
+						api.post( request ),
+						request
+				);
+				stats.add( System.nanoTime() - start );
+			}
+			stats.stop();
+			Log.i(
+					TAG,
+					stats.toString()
+			);
+			assertEquals(
+					REQUESTS,
+					stats.count()
+			);
+		} finally {
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * All requests are enqueued at once by {@link RestApiManager#execAsync(retrofit2.Call, RestObject)}. Every call is
+	 * wrapped by {@link TimedCall}, its latency is from calling {@link RestApiManager#execAsync(retrofit2.Call,
+	 * RestObject)} until its callback has returned, inc. waiting in the queue of dispatcher and both Realm status
+	 * writes.
+	 */
+	private void runAsync( String name, long latencyMs, float errorRate, int payloadSize ) throws Exception {
+		BenchServer server = new BenchServer(
+				latencyMs,
+				errorRate,
+				payloadSize
+		);
+		server.start();
+		final CountDownLatch latch      = new CountDownLatch( REQUESTS );
+		final BenchStats     stats      = new BenchStats(
+				name,
+				REQUESTS
+		);
+		Object               subscriber = new Object() {
+			@SuppressWarnings("unused")
+			public void onEvent( RestApiResponseEvent e ) {
+				latch.countDown();
+			}
+		};
+		EventBus.getDefault()
+				.register( subscriber );
+		try {
+			final BenchApi api = createApi( server );
+			stats.start();
+			//Realm-writes of RestApiManager#execAsync happen on main thread, like in an Activity.
+			new Handler( Looper.getMainLooper() ).post( new Runnable() {
+				@Override
+				public void run() {
+					for( int i = 0; i < REQUESTS; i++ ) {
+						BenchObject request = request( i );
+						long        start   = System.nanoTime();
+						mManager.execAsync(
+								new TimedCall<>(
+										api.post( request ),
+										stats,
+										start
+								),
+								request
+						);
+					}
+				}
+			} );
+			assertTrue( latch.await(
+					5,
+					TimeUnit.MINUTES
+			) );
+			//The event is posted inside the callback, the last sample is added when the callback has returned.
+			final CountDownLatch drained = new CountDownLatch( 1 );
+			new Handler( Looper.getMainLooper() ).post( new Runnable() {
+				@Override
+				public void run() {
+					drained.countDown();
+				}
+			} );
+			assertTrue( drained.await(
+					1,
+					TimeUnit.MINUTES
+			) );
+			stats.stop();
+			Log.i(
+					TAG,
+					stats.toString()
+			);
+			assertEquals(
+					REQUESTS,
+					stats.count()
+			);
+		} finally {
+			EventBus.getDefault()
+					.unregister( subscriber );
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * {@link Call} that adds time from {@code start} until its callback has returned to {@link BenchStats}. Callbacks
+	 * run on main thread, so stats are touched by one thread.
+	 */
+	private static final class TimedCall<T> implements Call<T> {
+		private final Call<T>    mCall;
+		private final BenchStats mStats;
+		private final long       mStart;
+
+		private TimedCall( Call<T> call, BenchStats stats, long start ) {
+			mCall = call;
+			mStats = stats;
+			mStart = start;
+		}
+
+		@Override
+		public Response<T> execute() throws IOException {
+			return mCall.execute();
+		}
+
+		@Override
+		public void enqueue( final Callback<T> callback ) {
+			mCall.enqueue( new Callback<T>() {
+				@Override
+				public void onResponse( Call<T> call, Response<T> response ) {
+					try {
+						callback.onResponse(
+								call,
+								response
+						);
+					} finally {
+						mStats.add( System.nanoTime() - mStart );
+					}
+				}
+
+				@Override
+				public void onFailure( Call<T> call, Throwable t ) {
+					try {
+						callback.onFailure(
+								call,
+								t
+						);
+					} finally {
+						mStats.add( System.nanoTime() - mStart );
+					}
+				}
+			} );
+		}
+
+		@Override
+		public boolean isExecuted() {
+			return mCall.isExecuted();
+		}
+
+		@Override
+		public void cancel() {
+			mCall.cancel();
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return mCall.isCanceled();
+		}
+
+		@Override
+		public Call<T> clone() {
+			return new TimedCall<>(
+					mCall.clone(),
+					mStats,
+					System.nanoTime()
+			);
+		}
+
+		@Override
+		public Request request() {
+			return mCall.request();
+		}
+	}
+
+	private static BenchApi createApi( BenchServer server ) {
+		return new Retrofit.Builder().baseUrl( server.getUrl() )
+									 .addConverterFactory( GsonConverterFactory.create() )
+									 .build()
+									 .create( BenchApi.class );
+	}
+
+	private static BenchObject request( int i ) {
+		return new BenchObject(
+				"req" + i,
+				i,
+				null
+		);
+	}
+}
@@ -29,6 +29,7 @@ import com.chopping.bus.AirplaneModeOnEvent;
 import com.chopping.bus.ApplicationConfigurationDownloadedEvent;
 import com.chopping.bus.ApplicationConfigurationLoadingIgnoredEvent;
 import com.chopping.bus.ReloadEvent;
+import com.chopping.bus.SubscriberIndex;
 import com.chopping.exceptions.CanNotOpenOrFindAppPropertiesException;
 import com.chopping.exceptions.InvalidAppPropertiesException;
 
@@ -136,6 +137,8 @@ public abstract class BaseActivity extends AppCompatActivity {
 			mErrorHandlerAvailable = savedInstanceState.getBoolean(EXTRAS_ERR_AVA, true);
 		}
 
+		//Index subscribers of other screens before they are opened, only first call does work.
+		SubscriberIndex.prewarm(this);
 		getApplication().registerReceiver(downloadCompleteReceiver, downloadCompleteIntentFilter);
 		//Resume a download indicator for not completed loading process.
 		if (getPrefs().isDownloadingUpdate()) {
@@ -163,6 +166,7 @@ public abstract class BaseActivity extends AppCompatActivity {
 
 		String mightError = null;
 		try {
+			//Normally renewed in background already, it loads only when the configuration is missing or stale.
 			getPrefs().downloadApplicationConfiguration();
 		} catch (InvalidAppPropertiesException _e) {
 			mightError = _e.getMessage();
@@ -1,10 +1,17 @@
 package com.chopping.activities;
 
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.support.v7.widget.RecyclerView;
 
 import com.chopping.bus.RestApiResponseEvent;
 import com.chopping.bus.UpdateNetworkStatusEvent;
+import com.chopping.net.SyncPolicy;
+import com.chopping.rest.PendingFlights;
+import com.chopping.rest.RealmCompactor;
+import com.chopping.rest.RealmPager;
+import com.chopping.rest.RealmSession;
 import com.chopping.utils.RestUtils;
 
 import io.realm.Realm;
@@ -57,12 +64,37 @@ public abstract class RestfulActivity extends BaseActivity {
 
 	private Realm                               mRealm;
 	private RealmResults<? extends RealmObject> mRealmData;
+	/**
+	 * Window over {@link #mRealmData}, {@code null} when {@link #getPageSize()} is {@code 0}.
+	 */
+	private RealmPager<? extends RealmObject>   mPager;
+	/**
+	 * Window of {@link #mPager} that has been shown last time.
+	 */
+	private int                                 mShownStart;
+	private int                                 mShownEnd;
 	private RealmChangeListener mListListener = new RealmChangeListener() {
 		@Override
 		public void onChange() {
+			if( mPager != null ) {
+				mPager.onResultsChanged();
+				mShownStart = mPager.getWindowStart();
+				mShownEnd = mPager.getWindowEnd();
+			}
 			buildViews();
 		}
 	};
+	private RealmPager.OnWindowChangedListener mWindowListener = new RealmPager.OnWindowChangedListener() {
+		@Override
+		public void onWindowChanged( int start, int end ) {
+			onPageLoaded(
+					start,
+					end
+			);
+			mShownStart = start;
+			mShownEnd = end;
+		}
+	};
 
 
 	private void load() {
@@ -86,6 +118,9 @@ public abstract class RestfulActivity extends BaseActivity {
 		RealmQuery<? extends RealmObject> query = mRealm.where( getDataClazz() );
 		buildQuery(query);
 		mRealmData = createQuery(query);
+		mPager = createPager( mRealmData );
+		mShownStart = 0;
+		mShownEnd = mPager == null ? 0 : mPager.getWindowEnd();
 		mRealmData.removeChangeListeners();
 		mRealmData.addChangeListener( mListListener );
 		if( shouldLoadLocal(getApplication() ) ) {
@@ -93,10 +128,131 @@ public abstract class RestfulActivity extends BaseActivity {
 		}
 	}
 
+	private <T extends RealmObject> RealmPager<T> createPager( RealmResults<T> results ) {
+		int pageSize = getPageSize();
+		if( pageSize <= 0 ) {
+			return null;
+		}
+		RealmPager<T> pager = RealmPager.create(
+				results,
+				pageSize,
+				getPrefetchDistance(),
+				getMaxPages(),
+				isPlaceholderEnabled()
+		);
+		pager.setOnWindowChangedListener( mWindowListener );
+		return pager;
+	}
+
+	/**
+	 * Count of items of one page for {@link #getPagedData()}, {@code 0} (default) doesn't page.
+	 */
+	protected int getPageSize() {
+		return 0;
+	}
+
+	/**
+	 * Distance to the edge of window when next page will be loaded, default is half page.
+	 */
+	protected int getPrefetchDistance() {
+		return getPageSize() / 2;
+	}
+
+	/**
+	 * Max count of pages in window when placeholders are enabled, {@code 0} (default) means no limit.
+	 */
+	protected int getMaxPages() {
+		return 0;
+	}
+
+	/**
+	 * {@code true} if {@link #getPagedData()} reports all items and returns {@code null} for items outside window.
+	 */
+	protected boolean isPlaceholderEnabled() {
+		return false;
+	}
+
+	/**
+	 * The adapter that shows {@link #getPagedData()}, it is informed by {@link #onPageLoaded(int, int)} about the items
+	 * that have entered or left the window.
+	 *
+	 * @return {@code null} (default) if views are rebuilt by {@link #buildViews()}.
+	 */
+	protected RecyclerView.Adapter<?> getPagedAdapter() {
+		return null;
+	}
+
+	/**
+	 * Callback when window of {@link #getPagedData()} has been changed, default informs {@link #getPagedAdapter()} about
+	 * the changed range or rebuilds views when there's no adapter.
+	 *
+	 * @param start
+	 * 		First position of window, inclusive.
+	 * @param end
+	 * 		Last position of window, exclusive.
+	 */
+	protected void onPageLoaded( int start, int end ) {
+		RecyclerView.Adapter<?> adapter = getPagedAdapter();
+		if( adapter == null ) {
+			buildViews();
+		} else if( isPlaceholderEnabled() ) {
+			//Count is stable, items in and out of window change between placeholder and data.
+			notifyChanged(
+					adapter,
+					start,
+					mShownStart
+			);
+			notifyChanged(
+					adapter,
+					mShownStart,
+					start
+			);
+			notifyChanged(
+					adapter,
+					end,
+					mShownEnd
+			);
+			notifyChanged(
+					adapter,
+					mShownEnd,
+					end
+			);
+		} else if( end > mShownEnd ) {
+			adapter.notifyItemRangeInserted(
+					mShownEnd,
+					end - mShownEnd
+			);
+		} else if( end < mShownEnd ) {
+			adapter.notifyItemRangeRemoved(
+					end,
+					mShownEnd - end
+			);
+		}
+	}
+
+	private static void notifyChanged( RecyclerView.Adapter<?> adapter, int from, int to ) {
+		if( to > from ) {
+			adapter.notifyItemRangeChanged(
+					from,
+					to - from
+			);
+		}
+	}
+
 	protected boolean shouldLoadLocal(Context cxt) {
 		return RestUtils.shouldLoadLocal( cxt );
 	}
 
+	/**
+	 * How much data should be loaded by {@link #loadList()} on current network, ie. only first page for {@link
+	 * SyncPolicy.Mode#PARTIAL}.
+	 *
+	 * @return {@link SyncPolicy.Mode}.
+	 */
+	protected SyncPolicy.Mode getSyncMode() {
+		return SyncPolicy.decide( getApplication() );
+	}
+
 	protected void buildQuery(RealmQuery<? extends RealmObject> q) {
 		//No default impl.
 	}
@@ -120,6 +276,16 @@ public abstract class RestfulActivity extends BaseActivity {
 		return mRealmData;
 	}
 
+	/**
+	 * Paged view on {@link #getData()}, the subclass should call {@link RealmPager#onItemAccessed(int)} when an item
+	 * will be shown so that further pages are loaded while scrolling.
+	 *
+	 * @return {@code null} if {@link #getPageSize()} is {@code 0}.
+	 */
+	protected RealmPager<? extends RealmObject> getPagedData() {
+		return mPager;
+	}
+
 
 
 	protected boolean isDataLoaded() {
@@ -148,9 +314,22 @@ public abstract class RestfulActivity extends BaseActivity {
 		if( mRealmData != null   ) {
 			mRealmData.removeChangeListener( mListListener );
 		}
+		if( mPager != null ) {
+			mPager.setOnWindowChangedListener( null );
+		}
 		if( mRealm != null  ) {
 			mRealm.close();
 		}
+		if( isFinishing() && isTaskRoot() ) {
+			//Application goes idle.
+			if( ( getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE ) != 0 ) {
+				RealmSession.checkLeaks( PendingFlights.TIMEOUT * 2 );
+			}
+			RealmCompactor.compactIfNeeded(
+					getApplication(),
+					null
+			);
+		}
 		super.onDestroy();
 	}
 }
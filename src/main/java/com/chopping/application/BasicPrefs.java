@@ -139,6 +139,12 @@ public class BasicPrefs {
 	 * API. Get list of all external applications.
 	 */
 	private static final String KEY_APP_LIST = "app_list";
+	/**
+	 * Hours that the cached list of all external applications keeps fresh, default is 6 hours.
+	 * <p/>
+	 * <b>Optional</b> in App's config.
+	 */
+	private static final String KEY_APP_LIST_TTL = "app_list_ttl";
 	/**
 	 * Website , home-site of the application, it could be null when the update is a download from a third party url. It
 	 * should be the page of store where the application is published.
@@ -295,6 +301,9 @@ public class BasicPrefs {
 		/* Read "app.properties" under resources of project.*/
 		getAppPropertiesUrl(context);
 
+		/* Renew configuration in background before it expires.*/
+		ConfigRefreshScheduler.attach(this);
+		ConfigRefreshScheduler.schedule(context);
 	}
 
 
@@ -429,6 +438,15 @@ public class BasicPrefs {
 		return getString(KEY_APP_LIST, null);
 	}
 
+	/**
+	 * Get time that the cached list of all external applications keeps fresh, after that the list will be revalidated.
+	 *
+	 * @return Time in milliseconds.
+	 */
+	public long getAppListTtl() {
+		return getInt(KEY_APP_LIST_TTL, 6) * ONE_HOUR;
+	}
+
 	/**
 	 * Live-Status of the App. If true, the app can be live, false can not. This method would be called at life-cycle's
 	 * onResume in order to prevent user from be in an invalidate App-status.
@@ -542,7 +560,9 @@ public class BasicPrefs {
 	 * use fallback if the url is invalid.
 	 * <p/>
 	 * Call this at {@code onResume()} of {@link android.app.Activity} or {@link android.support.v4.app.Fragment} for
-	 * each visible cases when App be brought to front.
+	 * each visible cases when App be brought to front. The configuration is normally renewed in background by {@link
+	 * ConfigRefreshScheduler}, so that this does network work only on first start, after an update of App or when the
+	 * background refresh has failed.
 	 *
 	 * @throws CanNotOpenOrFindAppPropertiesException
 	 * 		If can not find  "app.properties" .
@@ -561,34 +581,88 @@ public class BasicPrefs {
 				//Long time use and try to load newly.
 				mNewAppVersion; //App has been updated.
 		if (loadingConfig) {
-			LL.i("Loading App's configuration.");
-			/*
-			 * Request App's configuration.
-			 */
-			StringRequest request = new StringRequest(Request.Method.GET, getAppConfigUrl(),
-					new Response.Listener<String>() {
-						@Override
-						public void onResponse(String response) {
+			loadApplicationConfiguration(null);
+		} else {
+			/* Finish loading configuration directly. */
+			EventBus.getDefault().post(new ApplicationConfigurationLoadingIgnoredEvent());
+		}
+	}
+
+	/**
+	 * Load App's configuration in background without checking its age, it's called by {@link ConfigRefreshScheduler}.
+	 *
+	 * @param onLoaded
+	 * 		Called on main-thread when the configuration or its fallback has been written.
+	 *
+	 * @return {@code false} if it can't be loaded because app.properties is missing or invalid, {@code onLoaded} isn't
+	 * called then.
+	 */
+	boolean refreshApplicationConfiguration(Runnable onLoaded) {
+		if (mExp != null) {
+			LL.w("Can't refresh App's configuration: " + mExp.toString());
+			return false;
+		}
+		loadApplicationConfiguration(onLoaded);
+		return true;
+	}
+
+	/**
+	 * Request App's configuration, fallback is used if the request fails.
+	 *
+	 * @param onLoaded
+	 * 		Called on main-thread when the configuration or its fallback has been written, could be {@code null}.
+	 */
+	private void loadApplicationConfiguration(final Runnable onLoaded) {
+		LL.i("Loading App's configuration.");
+		/*
+		 * Request App's configuration.
+		 */
+		StringRequest request = new StringRequest(Request.Method.GET, getAppConfigUrl(),
+				new Response.Listener<String>() {
+					@Override
+					public void onResponse(String response) {
+						try {
 							LL.i(":) Loaded App's config: " + getAppConfigUrl());
 							writePrefsWithStream(new ByteArrayInputStream(response.getBytes()));
 							saveUpdateRate();
+						} finally {
+							if (onLoaded != null) {
+								onLoaded.run();
+							}
 						}
-					}, new Response.ErrorListener() {
-				@Override
-				public void onErrorResponse(VolleyError error) {
+					}
+				}, new Response.ErrorListener() {
+			@Override
+			public void onErrorResponse(VolleyError error) {
+				try {
 					LL.w(":( Can't load remote config: " + getAppConfigUrl());
 					LL.i(":) We load fallback: " + getAppConfigFallbackUrl());
 					writePrefsWithStream(mContext.getClassLoader().getResourceAsStream(getAppConfigFallbackUrl()));
 					saveUpdateRate();
+				} finally {
+					if (onLoaded != null) {
+						onLoaded.run();
+					}
 				}
-			});
-			request.setRetryPolicy(new DefaultRetryPolicy(10 * 1000, DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-					DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
-			TaskHelper.getRequestQueue().add(request);
-		} else {
-			/* Finish loading configuration directly. */
-			EventBus.getDefault().post(new ApplicationConfigurationLoadingIgnoredEvent());
-		}
+			}
+		});
+		request.setRetryPolicy(new DefaultRetryPolicy(10 * 1000, DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
+				DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+		TaskHelper.getRequestQueue().add(request);
+	}
+
+	/**
+	 * @return Time of last loading of App's configuration, {@code -1} if it has never been loaded.
+	 */
+	long getLastConfigUpdate() {
+		return getLong(LAST_UPDATE, -1);
+	}
+
+	/**
+	 * @return Update-rate of App's configuration in milliseconds.
+	 */
+	long getConfigUpdateRate() {
+		return getLong(UPDATE_RATE, SIX_HOURS);
 	}
 
 	/**
@@ -597,6 +671,7 @@ public class BasicPrefs {
 	private void saveUpdateRate() {
 		setLong(UPDATE_RATE, !TextUtils.isEmpty(mUpdateRate) ? Integer.valueOf(mUpdateRate) * ONE_HOUR : SIX_HOURS);
 		LL.i(String.format("Loading after %d seconds.", getLong(UPDATE_RATE, -1)));
+		ConfigRefreshScheduler.schedule(mContext);
 	}
 
 	/**
@@ -618,27 +693,18 @@ public class BasicPrefs {
 			for (String name : names) {
 				valueStr = prop.getProperty(name);
 				//				LL.d(String.format("%s=%s", name, valueStr));
-				if (TextUtils.isDigitsOnly(valueStr)) {
-					try {
-						int intValue = Integer.valueOf(valueStr);
-						setInt(name, intValue);
-					} catch (NumberFormatException eL) {
-						long longValue = Long.valueOf(valueStr);
-						setLong(name, longValue);
-					}
+				Object value = parseValue(valueStr);
+				if (value instanceof Integer) {
+					setInt(name, (Integer) value);
+				} else if (value instanceof Long) {
+					setLong(name, (Long) value);
+				} else if (value instanceof Float) {
+					setFloat(name, (Float) value);
+				} else if (value instanceof Boolean) {
+					setBoolean(name, (Boolean) value);
 				} else {
-					try {
-						float floatValue = Float.parseFloat(valueStr);
-						setFloat(name, floatValue);
-					} catch (Exception eF) {
-						if (TextUtils.equals(valueStr.toLowerCase(), "true") || TextUtils.equals(valueStr.toLowerCase(),
-								"false")) {
-							setBoolean(name, Boolean.parseBoolean(valueStr));
-						} else {
-							/*Have no choice, then all in to string.*/
-							setString(name, valueStr);
-						}
-					}
+					/*Have no choice, then all in to string.*/
+					setString(name, valueStr);
 				}
 			}
 		} catch (IOException ex) {
@@ -658,4 +724,50 @@ public class BasicPrefs {
 			EventBus.getDefault().post(new ApplicationConfigurationDownloadedEvent());
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Sniff type of a value of .properties, it doesn't depend on Android so that it can be measured on JVM.
+	 *
+	 * @param valueStr
+	 * 		Value in string.
+	 *
+	 * @return {@link Integer}, {@link Long}, {@link Float}, {@link Boolean} or {@code valueStr} self.
+	 */
+	static Object parseValue(String valueStr) {
+		if (isDigitsOnly(valueStr)) {
+			try {
+				return Integer.valueOf(valueStr);
+			} catch (NumberFormatException eL) {
+				try {
+					return Long.valueOf(valueStr);
+				} catch (NumberFormatException eLL) {
+					return valueStr;
+				}
+			}
+		}
+		try {
+			return Float.parseFloat(valueStr);
+		} catch (Exception eF) {
+			if (valueStr.equalsIgnoreCase("true") || valueStr.equalsIgnoreCase("false")) {
+				return Boolean.parseBoolean(valueStr);
+			}
+			return valueStr;
+		}
+	}
+
+	/**
+	 * Same as {@link TextUtils#isDigitsOnly(CharSequence)} except that empty string is no digits.
+	 */
+	private static boolean isDigitsOnly(String str) {
+		int len = str.length();
+		if (len == 0) {
+			return false;
+		}
+		for (int i = 0; i < len; i++) {
+			if (!Character.isDigit(str.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,37 @@
+package com.chopping.application;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+/**
+ * Receiver of alarms of {@link ConfigRefreshScheduler}. The broadcast is kept pending until the refresh has been
+ * answered, so that a cold process isn't killed while loading. Before Honeycomb there's no {@link #goAsync()}, the
+ * refresh might be lost with the process and is repeated at next start.
+ *
+ * @author Xinyue Zhao
+ */
+public final class ConfigRefreshReceiver extends BroadcastReceiver {
+	@Override
+	public void onReceive(Context context, Intent intent) {
+		Runnable onDone = Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB ? finishLater() : new Runnable() {
+			@Override
+			public void run() {
+			}
+		};
+		ConfigRefreshScheduler.onAlarm(context.getApplicationContext(), onDone);
+	}
+
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	private Runnable finishLater() {
+		final PendingResult result = goAsync();
+		return new Runnable() {
+			@Override
+			public void run() {
+				result.finish();
+			}
+		};
+	}
+}
@@ -0,0 +1,192 @@
+package com.chopping.application;
+
+import java.util.Random;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+
+import com.chopping.net.ConnectivityMonitor;
+import com.chopping.net.ConnectivityState;
+import com.chopping.utils.DeviceUtils;
+
+/**
+ * Renew App's configuration in background before its update-rate expires, so that {@link
+ * BasicPrefs#downloadApplicationConfiguration()} at front finds a fresh configuration and does no network work.
+ * <p/>
+ * The refresh-window opens at {@link #WINDOW_OPEN} of update-rate after last update plus a random jitter, so that
+ * devices don't hit the config host together. In the window a refresh runs when device is charging or on an unmetered
+ * network, after {@link #WINDOW_FORCE} of update-rate it runs on any network.
+ * <p/>
+ * Alarms don't wake up the device, they are delivered to {@link ConfigRefreshReceiver}. An alarm normally fires in a
+ * cold process where App has not created its {@link BasicPrefs} yet, so App should register a {@link PrefsProvider}
+ * with {@link #setPrefsProvider(PrefsProvider)} in {@link android.app.Application#onCreate()}. The receiver keeps the
+ * process alive until the refresh has been answered.
+ *
+ * @author Xinyue Zhao
+ */
+public final class ConfigRefreshScheduler {
+	/**
+	 * Ratio of update-rate when the window opens.
+	 */
+	private static final float WINDOW_OPEN = 0.8f;
+	/**
+	 * Max ratio of update-rate as jitter added to {@link #WINDOW_OPEN}.
+	 */
+	private static final float JITTER = 0.1f;
+	/**
+	 * Ratio of update-rate after which any network is used.
+	 */
+	private static final float WINDOW_FORCE = 0.95f;
+	/**
+	 * Delay to check again when the window is not good.
+	 */
+	private static final long RETRY_INTERVAL = 15 * 60 * 1000;
+
+	private static final Random sRandom = new Random();
+	/**
+	 * The {@link BasicPrefs} of App, it's created by App at start or by {@link #sPrefsProvider}.
+	 */
+	private static BasicPrefs sPrefs;
+	/**
+	 * Creates {@link BasicPrefs} of App when an alarm fires in a cold process.
+	 */
+	private static PrefsProvider sPrefsProvider;
+
+	/**
+	 * Provider of the {@link BasicPrefs} of App.
+	 */
+	public interface PrefsProvider {
+		/**
+		 * @param cxt
+		 * 		Application {@link android.content.Context}.
+		 *
+		 * @return The {@link BasicPrefs} of App.
+		 */
+		BasicPrefs getPrefs(Context cxt);
+	}
+
+	private ConfigRefreshScheduler() {
+	}
+
+	/**
+	 * Register the provider of {@link BasicPrefs}, call it in {@link android.app.Application#onCreate()}.
+	 *
+	 * @param provider
+	 * 		{@link PrefsProvider}.
+	 */
+	public static synchronized void setPrefsProvider(PrefsProvider provider) {
+		sPrefsProvider = provider;
+	}
+
+	/**
+	 * Called by {@link BasicPrefs} when it has been created.
+	 */
+	static synchronized void attach(BasicPrefs prefs) {
+		sPrefs = prefs;
+	}
+
+	/**
+	 * Schedule next refresh by last update and update-rate of configuration, it replaces scheduled one.
+	 *
+	 * @param cxt
+	 * 		{@link android.content.Context}.
+	 */
+	public static synchronized void schedule(Context cxt) {
+		if (sPrefs == null) {
+			return;
+		}
+		long lastUpdate = sPrefs.getLastConfigUpdate();
+		if (lastUpdate < 0) {
+			//Never loaded, front loads it.
+			return;
+		}
+		long rate = sPrefs.getConfigUpdateRate();
+		long jitter = (long) (sRandom.nextFloat() * JITTER * rate);
+		setAlarm(cxt, lastUpdate + (long) (WINDOW_OPEN * rate) + jitter);
+	}
+
+	/**
+	 * Cancel scheduled refresh.
+	 *
+	 * @param cxt
+	 * 		{@link android.content.Context}.
+	 */
+	public static void cancel(Context cxt) {
+		AlarmManager alarmManager = (AlarmManager) cxt.getSystemService(Context.ALARM_SERVICE);
+		alarmManager.cancel(createOperation(cxt));
+	}
+
+	/**
+	 * Called by {@link ConfigRefreshReceiver} when an alarm has been fired, refresh or check again later.
+	 *
+	 * @param onDone
+	 * 		Called when the alarm has been handled, on main-thread after loading if a refresh has been started.
+	 */
+	static void onAlarm(Context cxt, Runnable onDone) {
+		boolean loading = false;
+		try {
+			loading = handleAlarm(cxt, onDone);
+		} finally {
+			if (!loading) {
+				onDone.run();
+			}
+		}
+	}
+
+	/**
+	 * @return {@code true} if a refresh has been started, {@code onDone} is called after loading then.
+	 */
+	private static synchronized boolean handleAlarm(Context cxt, Runnable onDone) {
+		if (sPrefs == null && sPrefsProvider != null) {
+			//Cold process, attach() is called by the constructor.
+			sPrefsProvider.getPrefs(cxt);
+		}
+		if (sPrefs == null) {
+			LL.w("No BasicPrefs for refreshing configuration in background, register a PrefsProvider.");
+			//Check again later, App might have been started meanwhile.
+			retry(cxt, System.currentTimeMillis());
+			return false;
+		}
+		long now = System.currentTimeMillis();
+		long lastUpdate = sPrefs.getLastConfigUpdate();
+		long rate = sPrefs.getConfigUpdateRate();
+		if (lastUpdate < 0) {
+			return false;
+		}
+		if (now < lastUpdate + (long) (WINDOW_OPEN * rate)) {
+			//Configuration has been loaded meanwhile.
+			schedule(cxt);
+			return false;
+		}
+		ConnectivityState state = ConnectivityMonitor.getInstance(cxt).getState();
+		boolean goodWindow = state.isOnline() && (!state.isMetered() || DeviceUtils.isPlugged(cxt));
+		boolean forced = state.isOnline() && now >= lastUpdate + (long) (WINDOW_FORCE * rate);
+		if (goodWindow || forced) {
+			LL.i("Refreshing App's configuration in background.");
+			//Next refresh is scheduled after loading.
+			if (sPrefs.refreshApplicationConfiguration(onDone)) {
+				return true;
+			}
+			retry(cxt, now);
+		} else {
+			retry(cxt, now);
+		}
+		return false;
+	}
+
+	private static void retry(Context cxt, long now) {
+		setAlarm(cxt, now + RETRY_INTERVAL + (long) (sRandom.nextFloat() * RETRY_INTERVAL * JITTER));
+	}
+
+	private static void setAlarm(Context cxt, long triggerAtMillis) {
+		AlarmManager alarmManager = (AlarmManager) cxt.getSystemService(Context.ALARM_SERVICE);
+		alarmManager.set(AlarmManager.RTC, triggerAtMillis, createOperation(cxt));
+	}
+
+	private static PendingIntent createOperation(Context cxt) {
+		Intent intent = new Intent(cxt, ConfigRefreshReceiver.class);
+		return PendingIntent.getBroadcast(cxt, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT);
+	}
+}
@@ -3,10 +3,8 @@ package com.chopping.application;
 import java.lang.ref.WeakReference;
 
 import android.app.Activity;
-import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.os.Bundle;
 import android.support.annotation.IdRes;
 import android.support.v4.app.Fragment;
@@ -23,6 +21,7 @@ import com.chopping.R;
 import com.chopping.activities.ErrorHandlerActivity;
 import com.chopping.bus.AirplaneModeOnEvent;
 import com.chopping.fragments.ErrorHandlerFragment;
+import com.chopping.net.AirplaneModeMonitor;
 import com.chopping.utils.NetworkUtils;
 
 
@@ -37,7 +36,8 @@ import de.greenrobot.event.EventBus;
  *
  * @author Xinyue Zhao
  */
-public final class ErrorHandler implements Animation.AnimationListener, View.OnClickListener {
+public final class ErrorHandler implements Animation.AnimationListener, View.OnClickListener,
+		AirplaneModeMonitor.OnAirplaneModeChangedListener {
 	/**
 	 * Extras. {@link java.lang.String} description of error.
 	 */
@@ -99,29 +99,6 @@ public final class ErrorHandler implements Animation.AnimationListener, View.OnC
 	 * com.chopping.activities.ErrorHandlerActivity} or an {@link com.chopping.fragments.ErrorHandlerFragment}.
 	 */
 	private boolean mErrorHandlerAvailable = true;
-	/**
-	 * {@link android.content.IntentFilter} for airplane mode change.
-	 */
-	private IntentFilter mAirPlaneFilter = new IntentFilter(
-			Intent.ACTION_AIRPLANE_MODE_CHANGED);
-	/**
-	 * {@link android.content.BroadcastReceiver} for airplane mode change.
-	 */
-	private BroadcastReceiver mAirPlaneReceiver = new BroadcastReceiver() {
-
-		@Override
-		public void onReceive(final Context context, Intent intent) {
-			if (NetworkUtils.isAirplaneModeOn(context)) {
-				if(mHasDataOnUI) {
-					EventBus.getDefault().postSticky(new AirplaneModeOnEvent());
-				} else {
-					if(mContextWeakRef.get() != null) {
-						showFullView(mContextWeakRef.get(), null, true);
-					}
-				}
-			}
-		}
-	};
 
 	public ErrorHandler() {
 	}
@@ -130,12 +107,25 @@ public final class ErrorHandler implements Animation.AnimationListener, View.OnC
 	//Subscribes, event-handlers
 	//------------------------------------------------
 
+	@Override
+	public void onAirplaneModeChanged(boolean on) {
+		if (on) {
+			if(mHasDataOnUI) {
+				EventBus.getDefault().postSticky(new AirplaneModeOnEvent());
+			} else {
+				if(mContextWeakRef != null && mContextWeakRef.get() != null) {
+					showFullView(mContextWeakRef.get(), null, true);
+				}
+			}
+		}
+	}
+
 	public void onEvent(VolleyError e) {
 		if (mErrorHandlerAvailable) {
 			if(mContextWeakRef != null) {
 				Context context = mContextWeakRef.get();
 				if (context != null) {
-					boolean isAirplaneModeOn = NetworkUtils.isAirplaneModeOn(context);
+					boolean isAirplaneModeOn = AirplaneModeMonitor.getInstance(context).isOn();
 					if (isAirplaneModeOn && mHasDataOnUI) {//Show sticky.
 						openStickyBanner(context, true);
 						setText(e.networkResponse, true);
@@ -176,8 +166,7 @@ public final class ErrorHandler implements Animation.AnimationListener, View.OnC
 				.setOnClickListener(this);
 		mNoNetErrorActivity = errAct == null ? ErrorHandlerActivity.class : errAct;
 		mIsErrAct = true;
-		Context context = activity.getApplicationContext();
-		context.registerReceiver(mAirPlaneReceiver, mAirPlaneFilter);
+		AirplaneModeMonitor.getInstance(activity).addOnAirplaneModeChangedListener(this);
 	}
 
 	/**
@@ -208,8 +197,7 @@ public final class ErrorHandler implements Animation.AnimationListener, View.OnC
 			/*Force to set NULL error's activity.*/
 			mNoNetErrorActivity = null;
 			mIsErrAct = false;
-			Context context = fragment.getActivity().getApplicationContext();
-			context.registerReceiver(mAirPlaneReceiver, mAirPlaneFilter);
+			AirplaneModeMonitor.getInstance(fragment.getActivity()).addOnAirplaneModeChangedListener(this);
 		} catch (NullPointerException e) {
 			throw new NullPointerException(
 					"Can't create error-handling for fragment, checkout whether called onCreate at least after/in onViewCreated() of host-fragment.");
@@ -226,12 +214,9 @@ public final class ErrorHandler implements Animation.AnimationListener, View.OnC
 	public void onDestroy() {
 		if (mContextWeakRef != null && //mContextWeakRef could be null when the error-handling module never initialized.
 				mContextWeakRef.get() != null) {
-			Context context = mContextWeakRef.get().getApplicationContext();
-			context.unregisterReceiver(mAirPlaneReceiver);
+			AirplaneModeMonitor.getInstance(mContextWeakRef.get()).removeOnAirplaneModeChangedListener(this);
 		}
-		mAirPlaneReceiver = null;
 		mContextWeakRef = null;
-		mAirPlaneFilter = null;
 		stopAnim();
 		mAnimSet = null;
 	}
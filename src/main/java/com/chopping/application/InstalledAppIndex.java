@@ -0,0 +1,146 @@
+package com.chopping.application;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+
+import com.chopping.utils.Utils;
+
+/**
+ * Process-wide index of installed package-names. It is built once in background with a single query on {@link
+ * PackageManager} and kept up-to-date by {@link InstalledAppReceiver}, so that checking an App is installed or not
+ * costs no IPC. Changes that arrive while the index is being built are queued and applied after the snapshot, so that
+ * the snapshot never brings back a package removed meanwhile.
+ *
+ * @author Xinyue Zhao
+ */
+public final class InstalledAppIndex {
+	/**
+	 * Singleton.
+	 */
+	private static InstalledAppIndex sInstance;
+	/**
+	 * All installed package-names.
+	 */
+	private final Set<String> mPackages = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	/**
+	 * {@link PackageManager} for fallback before index has been built.
+	 */
+	private final PackageManager mPackageManager;
+	/**
+	 * {@code true} if {@link #mPackages} has been built.
+	 */
+	private volatile boolean mReady;
+	/**
+	 * Changes of {@link InstalledAppReceiver} while index is being built, package-name against {@code true} if it has
+	 * been installed. Locked by itself together with {@link #mReady}.
+	 */
+	private final Map<String, Boolean> mPendingChanges = new LinkedHashMap<String, Boolean>();
+
+	private InstalledAppIndex(Context context) {
+		mPackageManager = context.getApplicationContext().getPackageManager();
+	}
+
+	/**
+	 * Get the index, it starts building in background when it is called first time.
+	 *
+	 * @param context
+	 * 		{@link android.content.Context}.
+	 *
+	 * @return The instance of {@link InstalledAppIndex}.
+	 */
+	public static synchronized InstalledAppIndex getInstance(Context context) {
+		if (sInstance == null) {
+			sInstance = new InstalledAppIndex(context);
+			sInstance.build();
+		}
+		return sInstance;
+	}
+
+	/**
+	 * Build index in a background thread.
+	 */
+	private void build() {
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					List<ApplicationInfo> apps = mPackageManager.getInstalledApplications(0);
+					synchronized (mPendingChanges) {
+						for (ApplicationInfo app : apps) {
+							mPackages.add(app.packageName);
+						}
+						//Changes are newer than the snapshot.
+						for (Map.Entry<String, Boolean> change : mPendingChanges.entrySet()) {
+							apply(change.getKey(), change.getValue());
+						}
+						mPendingChanges.clear();
+						mReady = true;
+					}
+				} catch (RuntimeException e) {
+					//Binder transaction might fail with too many packages, we fallback to single query then.
+					LL.e("Can't build index of installed apps: " + e.toString());
+					synchronized (mPendingChanges) {
+						mPendingChanges.clear();
+					}
+				}
+			}
+		}, "InstalledAppIndex").start();
+	}
+
+	/**
+	 * Check whether the App with {@code packageName} has been installed or not.
+	 *
+	 * @param packageName
+	 * 		The package-name of App.
+	 *
+	 * @return {@code true} if installed.
+	 */
+	public boolean isInstalled(String packageName) {
+		if (mReady) {
+			return mPackages.contains(packageName);
+		}
+		return Utils.isAppInstalled(packageName, mPackageManager);
+	}
+
+	/**
+	 * Called when an App has been installed.
+	 */
+	void onAdded(String packageName) {
+		onChanged(packageName, true);
+	}
+
+	/**
+	 * Called when an App has been removed.
+	 */
+	void onRemoved(String packageName) {
+		onChanged(packageName, false);
+	}
+
+	private void onChanged(String packageName, boolean installed) {
+		synchronized (mPendingChanges) {
+			if (mReady) {
+				apply(packageName, installed);
+			} else {
+				//Re-insert, so that the order of changes is kept.
+				mPendingChanges.remove(packageName);
+				mPendingChanges.put(packageName, installed);
+			}
+		}
+	}
+
+	private void apply(String packageName, boolean installed) {
+		if (installed) {
+			mPackages.add(packageName);
+		} else {
+			mPackages.remove(packageName);
+		}
+	}
+}
@@ -21,6 +21,16 @@ public final class InstalledAppReceiver extends BroadcastReceiver {
 		Uri data = intent.getData();
 		if(data != null) {
 			String packageName = data.getSchemeSpecificPart();
+			InstalledAppIndex index = InstalledAppIndex.getInstance(context);
+			String action = intent.getAction();
+			//Other actions that App might have registered say nothing about installation.
+			if (Intent.ACTION_PACKAGE_REMOVED.equals(action)) {
+				if (!intent.getBooleanExtra(Intent.EXTRA_REPLACING, false)) {
+					index.onRemoved(packageName);
+				}
+			} else if (Intent.ACTION_PACKAGE_ADDED.equals(action) || Intent.ACTION_PACKAGE_REPLACED.equals(action)) {
+				index.onAdded(packageName);
+			}
 			EventBus.getDefault().post(new ExternalAppChangedEvent(packageName));
 		}
 	}
@@ -32,7 +32,8 @@ public final class LL {
 		return DEBUG_TAG + msg + DEBUG_TAG;
 	}
 
-	private static String mkTag() {
+	//Package-private for benchmarks.
+	static String mkTag() {
 		int stackDepth = 5;
 		String[] arrClassName = Thread.currentThread().getStackTrace()[stackDepth].getClassName().split("\\.");
 		String className = arrClassName[arrClassName.length - 1];
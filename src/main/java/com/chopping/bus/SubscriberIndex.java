@@ -0,0 +1,146 @@
+package com.chopping.bus;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Process;
+
+import com.chopping.activities.BaseActivity;
+import com.chopping.application.ErrorHandler;
+import com.chopping.application.LL;
+
+/**
+ * Index of subscribers of {@link de.greenrobot.event.EventBus}, it scans {@code onEvent*} methods of classes in
+ * background before they are registered, so that {@code register()} on main thread finds them in the method-cache of
+ * EventBus and makes no reflective walk.
+ * <p/>
+ * EventBus 2.4 has no generated subscriber index, its internal method-cache is filled through reflection. When that
+ * isn't possible(ie. another version of EventBus) nothing is indexed and registration works as before.
+ * <p/>
+ * Subclasses of {@link BaseActivity} in manifest and {@link ErrorHandler} are indexed automatically, fragments should be
+ * given by App in {@code Application#onCreate()}:
+ * <pre>
+ * <code>
+ * SubscriberIndex.prewarm(this, MyListFragment.class, MyDetailFragment.class);
+ * </code>
+ * </pre>
+ *
+ * @author Xinyue Zhao
+ */
+public final class SubscriberIndex {
+	private static final String FINDER_CLASS = "de.greenrobot.event.SubscriberMethodFinder";
+	private static final String FIND_METHOD = "findSubscriberMethods";
+	/**
+	 * Classes that have been indexed or are being indexed.
+	 */
+	private static final Set<Class<?>> sIndexed = Collections.newSetFromMap(
+			new ConcurrentHashMap<Class<?>, Boolean>());
+	private static volatile boolean sManifestScanned;
+
+	private SubscriberIndex() {
+	}
+
+	/**
+	 * Index {@code classes} and subclasses of {@link BaseActivity} declared in manifest in a background thread.
+	 *
+	 * @param cxt
+	 * 		{@link android.content.Context}.
+	 * @param classes
+	 * 		Classes of subscribers, ie. fragments.
+	 */
+	public static void prewarm(Context cxt, Class<?>... classes) {
+		final Context app = cxt.getApplicationContext();
+		final boolean scanManifest = !sManifestScanned;
+		sManifestScanned = true;
+		final List<Class<?>> pending = new ArrayList<>();
+		if (scanManifest) {
+			pending.add(ErrorHandler.class);
+		}
+		for (Class<?> clazz : classes) {
+			pending.add(clazz);
+		}
+		if (!scanManifest && pending.isEmpty()) {
+			return;
+		}
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+				if (scanManifest) {
+					pending.addAll(findActivities(app));
+				}
+				index(pending);
+			}
+		}, "SubscriberIndex");
+		thread.start();
+	}
+
+	/**
+	 * @return Subclasses of {@link BaseActivity} declared in manifest.
+	 */
+	private static List<Class<?>> findActivities(Context app) {
+		List<Class<?>> activities = new ArrayList<>();
+		try {
+			PackageInfo info = app.getPackageManager().getPackageInfo(app.getPackageName(),
+					PackageManager.GET_ACTIVITIES);
+			if (info.activities == null) {
+				return activities;
+			}
+			ClassLoader loader = app.getClassLoader();
+			for (ActivityInfo activity : info.activities) {
+				try {
+					//Don't initialize, only methods are needed.
+					Class<?> clazz = Class.forName(activity.name, false, loader);
+					if (BaseActivity.class.isAssignableFrom(clazz)) {
+						activities.add(clazz);
+					}
+				} catch (ClassNotFoundException e) {
+					LL.w("SubscriberIndex can't load " + activity.name);
+				}
+			}
+		} catch (PackageManager.NameNotFoundException e) {
+			LL.w("SubscriberIndex can't read manifest: " + e.toString());
+		}
+		return activities;
+	}
+
+	private static void index(List<Class<?>> classes) {
+		Object finder;
+		Method find;
+		try {
+			Class<?> finderClass = Class.forName(FINDER_CLASS);
+			Constructor<?> constructor = finderClass.getDeclaredConstructor(List.class);
+			constructor.setAccessible(true);
+			finder = constructor.newInstance(new Object[] { null });
+			find = finderClass.getDeclaredMethod(FIND_METHOD, Class.class);
+			find.setAccessible(true);
+		} catch (Exception e) {
+			LL.w("SubscriberIndex isn't supported by this EventBus: " + e.toString());
+			return;
+		}
+		long start = System.currentTimeMillis();
+		int count = 0;
+		for (Class<?> clazz : classes) {
+			if (!sIndexed.add(clazz)) {
+				continue;
+			}
+			try {
+				find.invoke(finder, clazz);
+				count++;
+			} catch (Exception e) {
+				//ie. no onEvent* in the class, EventBus will tell it at register().
+				LL.d("SubscriberIndex skips " + clazz.getName() + ": " + e.toString());
+			}
+		}
+		LL.d(String.format("SubscriberIndex indexed %d classes in %d ms.", count, System.currentTimeMillis() - start));
+	}
+}
@@ -3,13 +3,17 @@ package com.chopping.fragments;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import android.app.Activity;
 import android.app.Application;
 import android.content.res.Resources;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.v4.util.ArrayMap;
+import android.support.v4.util.ArraySet;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -17,15 +21,17 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
 
-import com.android.volley.Request;
+import com.android.volley.VolleyError;
 import com.android.volley.toolbox.NetworkImageView;
 import com.chopping.R;
+import com.chopping.application.InstalledAppIndex;
 import com.chopping.bus.CloseDrawerEvent;
 import com.chopping.bus.ExternalAppChangedEvent;
 import com.chopping.bus.LinkToExternalAppEvent;
 import com.chopping.data.AppList;
 import com.chopping.data.AppListItem;
-import com.chopping.net.GsonRequestTask;
+import com.chopping.net.AppListCache;
+import com.chopping.net.AppListRequestTask;
 import com.chopping.net.TaskHelper;
 
 import de.greenrobot.event.EventBus;
@@ -40,24 +46,85 @@ public abstract class AppListFragment extends BaseFragment {
 	 * Main layout for this component.
 	 */
 	private static final int LAYOUT = R.layout.fragment_app_list;
+	/**
+	 * Main layout for this component when {@link #isRecyclerMode()}.
+	 */
+	private static final int LAYOUT_RECYCLER = R.layout.fragment_app_list_recycler;
 	/**
 	 * Layout for an external application to download/install/open.
 	 */
 	private static final int LAYOUT_APP_ITEM = R.layout.inc_app;
+	/**
+	 * Delay in milliseconds to collect changes of external applications before rows are refreshed.
+	 */
+	private static final long APP_CHANGED_BATCH_DELAY = 300;
 	/**
 	 * {@link android.view.ViewGroup} for external applications.
 	 */
 	private ViewGroup mAppListVg;
+	/**
+	 * {@link RecyclerView} for external applications when {@link #isRecyclerMode()}.
+	 */
+	private RecyclerView mAppListRv;
+	/**
+	 * Adapter of {@link #mAppListRv}.
+	 */
+	private AppListAdapter mAdapter;
 	/**
 	 * True if a loading app-list request is under way.
 	 */
 	private boolean mReqInProcess = false;
+	/**
+	 * Persisted snapshot of app-list.
+	 */
+	private AppListCache mAppListCache;
 	/**
 	 * {@link android.widget.Button}s of all external applications.
 	 * </p>
-	 * It is a map of the key that item of application against value {@link android.widget.Button} .
+	 * It is a map of the package-name of application against value {@link android.widget.Button} .
+	 */
+	private ArrayMap<String, WeakReference<Button>> mAppButtons = new ArrayMap<String, WeakReference<Button>>();
+	/**
+	 * Items of all shown external applications, keyed by package-name.
+	 */
+	private ArrayMap<String, AppListItem> mAppItems = new ArrayMap<String, AppListItem>();
+	/**
+	 * Package-names of changed external applications which haven't been refreshed on rows.
+	 */
+	private ArraySet<String> mChangedPackages = new ArraySet<String>();
+	/**
+	 * {@code true} if {@link #mRefreshChangedApps} has been posted and not run yet.
+	 */
+	private boolean mRefreshPending;
+	/**
+	 * {@link Handler} to refresh rows of changed external applications in one pass.
+	 */
+	private Handler mHandler = new Handler(Looper.getMainLooper());
+	/**
+	 * Refresh all rows of {@link #mChangedPackages}.
+	 */
+	private Runnable mRefreshChangedApps = new Runnable() {
+		@Override
+		public void run() {
+			refreshChangedApps();
+		}
+	};
+
+	/**
+	 * Ends a revalidation that delivers no {@link AppList}.
 	 */
-	private ArrayMap<AppListItem, WeakReference<Button>> mAppButtons = new ArrayMap<AppListItem, WeakReference<Button>>();
+	private AppListRequestTask.OnRevalidatedListener mOnRevalidatedListener =
+			new AppListRequestTask.OnRevalidatedListener() {
+				@Override
+				public void onNotModified() {
+					mReqInProcess = false;
+				}
+
+				@Override
+				public void onError(VolleyError _error) {
+					mReqInProcess = false;
+				}
+			};
 
 	//------------------------------------------------
 	//Subscribes, event-handlers
@@ -72,6 +139,7 @@ public abstract class AppListFragment extends BaseFragment {
 	 * 		{@link  AppList}.
 	 */
 	public void onEvent(AppList e) {
+		mReqInProcess = false;
 		showAppList(e.getItems());
 	}
 
@@ -102,16 +170,38 @@ public abstract class AppListFragment extends BaseFragment {
 
 
 	public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-		return inflater.inflate(LAYOUT, container, false);
+		return inflater.inflate(isRecyclerMode() ? LAYOUT_RECYCLER : LAYOUT, container, false);
 	}
 
 	@Override
 	public void onViewCreated(View view, Bundle savedInstanceState) {
 		super.onViewCreated(view, savedInstanceState);
-		mAppListVg = (ViewGroup) view.findViewById(R.id.app_list_ll);
+		/*Warm up index of installed apps before the list has been loaded.*/
+		InstalledAppIndex.getInstance(view.getContext());
+		if (isRecyclerMode()) {
+			mAppListRv = (RecyclerView) view.findViewById(R.id.app_list_rv);
+			mAppListRv.setLayoutManager(new LinearLayoutManager(view.getContext()));
+			mAppListRv.setHasFixedSize(true);
+			mAdapter = new AppListAdapter();
+			mAppListRv.setAdapter(mAdapter);
+		} else {
+			mAppListVg = (ViewGroup) view.findViewById(R.id.app_list_ll);
+		}
 		loadAppList();
 	}
 
+	/**
+	 * Whether the list of external applications is shown by a {@link RecyclerView} which binds only visible rows, or by
+	 * a plain {@link ViewGroup} that inflates all rows at once.
+	 * <p/>
+	 * <b>Default is {@code false}</b>, it should be {@code true} for large list of applications.
+	 *
+	 * @return {@code true} if the list is shown by a {@link RecyclerView}.
+	 */
+	protected boolean isRecyclerMode() {
+		return false;
+	}
+
 
 	/**
 	 * Update the status of buttons that can open store linking to the external _app or directly on the _app.
@@ -125,7 +215,7 @@ public abstract class AppListFragment extends BaseFragment {
 		Activity activity = getActivity();
 		if (activity != null) {
 			Resources res = getResources();
-			if (com.chopping.utils.Utils.isAppInstalled(app.getPackageName(), activity.getPackageManager())) {
+			if (InstalledAppIndex.getInstance(activity).isInstalled(app.getPackageName())) {
 				appOpen.setText(R.string.extapp_open);
 				appOpen.setTextColor(res.getColor(R.color.installed_text));
 				appOpen.setBackgroundResource(R.drawable.selector_intstalled_app_item_btn_color);
@@ -155,67 +245,224 @@ public abstract class AppListFragment extends BaseFragment {
 				}
 				appsFiltered.add(app);
 			}
-			View itemV;
-			NetworkImageView logoIv;
-			TextView appNameTv;
-			Button appBtn;
-			mAppListVg.removeAllViews();
-			for (final AppListItem item : appsFiltered) {
-				itemV =activity.getLayoutInflater().inflate(LAYOUT_APP_ITEM, mAppListVg, false);
-				logoIv = (NetworkImageView) itemV.findViewById(R.id.app_logo_iv);
-				appNameTv = (TextView) itemV.findViewById(R.id.app_name_tv);
-				appBtn = (Button) itemV.findViewById(R.id.start_app_btn);
-				logoIv.setDefaultImageResId(R.drawable.ic_launcher);
-				logoIv.setImageUrl(item.getLogoUrl(), TaskHelper.getImageLoader());
-				appNameTv.setText(item.getName());
-				refreshExternalAppButtonStatus(appBtn, item);
-				appBtn.setOnClickListener(new View.OnClickListener() {
-					@Override
-					public void onClick(View v) {
-						EventBus.getDefault().post(new CloseDrawerEvent());
-						EventBus.getDefault().post(new LinkToExternalAppEvent(item));
-					}
-				});
-				mAppButtons.put(item , new WeakReference<Button>(appBtn));
-				mAppListVg.addView(itemV);
+			if (mAdapter != null) {
+				mAdapter.setApps(appsFiltered);
+			} else {
+				ViewHolder holder;
+				mAppListVg.removeAllViews();
+				mAppButtons.clear();
+				mAppItems.clear();
+				for (final AppListItem item : appsFiltered) {
+					holder = new ViewHolder(activity.getLayoutInflater().inflate(LAYOUT_APP_ITEM, mAppListVg, false));
+					bindApp(holder, item);
+					mAppButtons.put(item.getPackageName(), new WeakReference<Button>(holder.mAppBtn));
+					mAppItems.put(item.getPackageName(), item);
+					mAppListVg.addView(holder.itemView);
+				}
 			}
 		}
-		mReqInProcess = false;
 	}
 
 
 	/**
-	 * Load list of apps.
+	 * Show an external application on a row.
+	 *
+	 * @param holder
+	 * 		{@link ViewHolder} of the row.
+	 * @param item
+	 * 		The data-set represent an external app.
+	 */
+	private void bindApp(ViewHolder holder, final AppListItem item) {
+		holder.mLogoIv.setDefaultImageResId(R.drawable.ic_launcher);
+		holder.mLogoIv.setImageUrl(item.getLogoUrl(), TaskHelper.getImageLoader());
+		holder.mAppNameTv.setText(item.getName());
+		refreshExternalAppButtonStatus(holder.mAppBtn, item);
+		holder.mAppBtn.setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				EventBus.getDefault().post(new CloseDrawerEvent());
+				EventBus.getDefault().post(new LinkToExternalAppEvent(item));
+			}
+		});
+	}
+
+	/**
+	 * Load list of apps. The snapshot of last time is read in thread and shown as soon as possible, it will be
+	 * revalidated in background when it is older than {@link #getAppListTtl()}.
 	 */
 	private void loadAppList() {
 		Activity activity = getActivity();
 		if (activity != null) {
-			Application app = activity.getApplication();
-			final String urlAppList = getPrefs().getApiAppList();
-			if (!TextUtils.isEmpty(urlAppList) && !mReqInProcess) {
-				new GsonRequestTask<AppList>(app, Request.Method.GET, urlAppList,
-						AppList.class).execute();
-				mReqInProcess = true;
+			final Application app = activity.getApplication();
+			if (mAppListCache == null) {
+				mAppListCache = new AppListCache(app);
 			}
+			final AppListCache cache = mAppListCache;
+			final String urlAppList = getPrefs().getApiAppList();
+			final long ttl = getAppListTtl();
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					final AppList cached = cache.read();
+					final boolean fresh = cached != null && cache.isFresh(ttl);
+					mHandler.post(new Runnable() {
+						@Override
+						public void run() {
+							onAppListCacheRead(app, urlAppList, cached, fresh);
+						}
+					});
+				}
+			}, "AppListCache").start();
+		}
+	}
+
+	/**
+	 * Called on main-thread when the snapshot has been read, show it and revalidate it if necessary.
+	 *
+	 * @param app
+	 * 		{@link Application}.
+	 * @param urlAppList
+	 * 		Url of app-list.
+	 * @param cached
+	 * 		The snapshot, {@code null} if there's no snapshot.
+	 * @param fresh
+	 * 		{@code true} if the snapshot needs no revalidation.
+	 */
+	private void onAppListCacheRead(Application app, String urlAppList, AppList cached, boolean fresh) {
+		if (cached != null && cached.getItems() != null) {
+			showAppList(cached.getItems());
 		}
+		if (!TextUtils.isEmpty(urlAppList) && !mReqInProcess && !fresh) {
+			new AppListRequestTask(app, urlAppList, mAppListCache, mOnRevalidatedListener).execute();
+			mReqInProcess = true;
+		}
+	}
+
+	/**
+	 * Time that the cached list keeps fresh.
+	 * <p/>
+	 * <b>Default is {@link com.chopping.application.BasicPrefs#getAppListTtl()}</b>.
+	 *
+	 * @return Time in milliseconds.
+	 */
+	protected long getAppListTtl() {
+		return getPrefs().getAppListTtl();
 	}
 
 
 	/**
-	 * The application status has been changed and handling now.
+	 * The application status has been changed. Changes are collected and their rows will be refreshed in one pass, at
+	 * latest {@link #APP_CHANGED_BATCH_DELAY} after the first change of the pass, so that a stream of changes(ie. bulk
+	 * updates) never holds the refresh back.
 	 * @param e {@link  ExternalAppChangedEvent}
 	 */
 	private void updateForAppChanged(ExternalAppChangedEvent e) {
-		Set<AppListItem> keys = mAppButtons.keySet();
-		for(AppListItem key : keys) {
-			if (TextUtils.equals(e.getPackageName(), key.getPackageName())) {
-				WeakReference<Button> appBtnRef = mAppButtons.get(key);
-				if(appBtnRef != null && appBtnRef.get() != null) {
-					Button appBtn = appBtnRef.get();
-					refreshExternalAppButtonStatus(appBtn, key);
+		mChangedPackages.add(e.getPackageName());
+		if (!mRefreshPending) {
+			mRefreshPending = true;
+			mHandler.postDelayed(mRefreshChangedApps, APP_CHANGED_BATCH_DELAY);
+		}
+	}
+
+	/**
+	 * Refresh rows of all changed applications.
+	 */
+	private void refreshChangedApps() {
+		mRefreshPending = false;
+		for (String packageName : mChangedPackages) {
+			if (mAdapter != null) {
+				mAdapter.notifyAppChanged(packageName);
+			} else {
+				WeakReference<Button> appBtnRef = mAppButtons.get(packageName);
+				AppListItem item = mAppItems.get(packageName);
+				if (item != null && appBtnRef != null && appBtnRef.get() != null) {
+					refreshExternalAppButtonStatus(appBtnRef.get(), item);
+				}
+			}
+		}
+		mChangedPackages.clear();
+	}
+
+	@Override
+	public void onDestroyView() {
+		mHandler.removeCallbacks(mRefreshChangedApps);
+		mRefreshPending = false;
+		mChangedPackages.clear();
+		super.onDestroyView();
+	}
+
+	/**
+	 * Holder of views of a row for an external application, so that views are found only once.
+	 */
+	static final class ViewHolder extends RecyclerView.ViewHolder {
+		private final NetworkImageView mLogoIv;
+		private final TextView mAppNameTv;
+		private final Button mAppBtn;
+
+		ViewHolder(View itemView) {
+			super(itemView);
+			mLogoIv = (NetworkImageView) itemView.findViewById(R.id.app_logo_iv);
+			mAppNameTv = (TextView) itemView.findViewById(R.id.app_name_tv);
+			mAppBtn = (Button) itemView.findViewById(R.id.start_app_btn);
+		}
+	}
+
+	/**
+	 * {@link RecyclerView.Adapter} for external applications, rows are bound only when they become visible.
+	 */
+	private final class AppListAdapter extends RecyclerView.Adapter<ViewHolder> {
+		private List<AppListItem> mApps = new ArrayList<AppListItem>();
+		/**
+		 * Stable ids of applications, keyed by package-name.
+		 */
+		private ArrayMap<String, Long> mIds = new ArrayMap<String, Long>();
+		/**
+		 * Positions of applications, keyed by package-name.
+		 */
+		private ArrayMap<String, Integer> mPositions = new ArrayMap<String, Integer>();
+
+		AppListAdapter() {
+			setHasStableIds(true);
+		}
+
+		void setApps(List<AppListItem> apps) {
+			mApps = apps;
+			mPositions.clear();
+			for (int i = 0, cnt = apps.size(); i < cnt; i++) {
+				String packageName = apps.get(i).getPackageName();
+				if (!mIds.containsKey(packageName)) {
+					mIds.put(packageName, (long) mIds.size());
 				}
-				break;
+				mPositions.put(packageName, i);
+			}
+			notifyDataSetChanged();
+		}
+
+		void notifyAppChanged(String packageName) {
+			Integer position = mPositions.get(packageName);
+			if (position != null) {
+				notifyItemChanged(position);
 			}
 		}
+
+		@Override
+		public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+			return new ViewHolder(LayoutInflater.from(parent.getContext()).inflate(LAYOUT_APP_ITEM, parent, false));
+		}
+
+		@Override
+		public void onBindViewHolder(ViewHolder holder, int position) {
+			bindApp(holder, mApps.get(position));
+		}
+
+		@Override
+		public long getItemId(int position) {
+			return mIds.get(mApps.get(position).getPackageName());
+		}
+
+		@Override
+		public int getItemCount() {
+			return mApps.size();
+		}
 	}
 }
@@ -0,0 +1,112 @@
+package com.chopping.net;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+
+import com.chopping.utils.NetworkUtils;
+
+/**
+ * Process-wide monitor of airplane-mode. It registers one receiver of {@link Intent#ACTION_AIRPLANE_MODE_CHANGED},
+ * reads the setting once per change and fans out to listeners, ie. every {@link com.chopping.application.ErrorHandler}
+ * of visible activities and fragments.
+ * <p/>
+ * Listeners are weakly referenced, a listener that has been garbage-collected is dropped. Listeners are called on main
+ * thread.
+ *
+ * @author Xinyue Zhao
+ */
+public final class AirplaneModeMonitor {
+	/**
+	 * Callback when airplane-mode has been changed.
+	 */
+	public interface OnAirplaneModeChangedListener {
+		void onAirplaneModeChanged(boolean on);
+	}
+
+	/**
+	 * Singleton.
+	 */
+	private static AirplaneModeMonitor sInstance;
+	private final List<WeakReference<OnAirplaneModeChangedListener>> mListeners = new ArrayList<>();
+	private volatile boolean mOn;
+
+	private AirplaneModeMonitor(Context app) {
+		mOn = NetworkUtils.isAirplaneModeOn(app);
+	}
+
+	/**
+	 * Get the monitor, it subscribes changes of airplane-mode when it is called first time.
+	 *
+	 * @param context
+	 * 		{@link android.content.Context}.
+	 *
+	 * @return The instance of {@link AirplaneModeMonitor}.
+	 */
+	public static synchronized AirplaneModeMonitor getInstance(Context context) {
+		if (sInstance == null) {
+			Context app = context.getApplicationContext();
+			sInstance = new AirplaneModeMonitor(app);
+			sInstance.subscribe(app);
+		}
+		return sInstance;
+	}
+
+	/**
+	 * @return {@code true} if airplane-mode is on, without reading setting.
+	 */
+	public boolean isOn() {
+		return mOn;
+	}
+
+	public synchronized void addOnAirplaneModeChangedListener(OnAirplaneModeChangedListener listener) {
+		for (WeakReference<OnAirplaneModeChangedListener> ref : mListeners) {
+			if (ref.get() == listener) {
+				return;
+			}
+		}
+		mListeners.add(new WeakReference<>(listener));
+	}
+
+	public synchronized void removeOnAirplaneModeChangedListener(OnAirplaneModeChangedListener listener) {
+		for (Iterator<WeakReference<OnAirplaneModeChangedListener>> i = mListeners.iterator(); i.hasNext(); ) {
+			OnAirplaneModeChangedListener l = i.next().get();
+			if (l == null || l == listener) {
+				i.remove();
+			}
+		}
+	}
+
+	private void subscribe(Context app) {
+		app.registerReceiver(new BroadcastReceiver() {
+			@Override
+			public void onReceive(Context context, Intent intent) {
+				mOn = NetworkUtils.isAirplaneModeOn(context);
+				dispatch(mOn);
+			}
+		}, new IntentFilter(Intent.ACTION_AIRPLANE_MODE_CHANGED));
+	}
+
+	private void dispatch(boolean on) {
+		List<OnAirplaneModeChangedListener> listeners = new ArrayList<>();
+		synchronized (this) {
+			for (Iterator<WeakReference<OnAirplaneModeChangedListener>> i = mListeners.iterator(); i.hasNext(); ) {
+				OnAirplaneModeChangedListener l = i.next().get();
+				if (l == null) {
+					i.remove();
+				} else {
+					listeners.add(l);
+				}
+			}
+		}
+		for (OnAirplaneModeChangedListener l : listeners) {
+			l.onAirplaneModeChanged(on);
+		}
+	}
+}
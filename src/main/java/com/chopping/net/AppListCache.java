@@ -0,0 +1,208 @@
+package com.chopping.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import android.content.Context;
+import android.text.TextUtils;
+
+import com.chopping.application.LL;
+import com.chopping.data.AppList;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Persisted snapshot of {@link AppList}, so that the list can be shown before it has been loaded from network.
+ * <p/>
+ * The snapshot is stored in cache-directory of application, the hash-file beside holds the hash of snapshot and the
+ * time of last validation. Last-modified time of files isn't used, it can't be set on many file-systems of Android.
+ *
+ * @author Xinyue Zhao
+ */
+public final class AppListCache {
+	/**
+	 * Name of file of snapshot.
+	 */
+	private static final String FILE_NAME = "app_list.json";
+	/**
+	 * Name of file of hash of snapshot and time of last validation, one per line.
+	 */
+	private static final String HASH_FILE_NAME = "app_list.md5";
+	/**
+	 * Snapshot.
+	 */
+	private final File mFile;
+	/**
+	 * Hash of snapshot.
+	 */
+	private final File mHashFile;
+
+	/**
+	 * Constructor of {@link AppListCache}.
+	 *
+	 * @param cxt
+	 * 		{@link android.content.Context}.
+	 */
+	public AppListCache(Context cxt) {
+		File dir = cxt.getApplicationContext().getCacheDir();
+		mFile = new File(dir, FILE_NAME);
+		mHashFile = new File(dir, HASH_FILE_NAME);
+	}
+
+	/**
+	 * Read snapshot.
+	 *
+	 * @return The {@link AppList} saved last time, {@code null} if there's no snapshot or it is broken.
+	 */
+	public synchronized AppList read() {
+		if (!mFile.exists()) {
+			return null;
+		}
+		try {
+			return TaskHelper.getGson().fromJson(new String(readFile(mFile), "UTF-8"), AppList.class);
+		} catch (IOException e) {
+			LL.w("Can't read cached app-list: " + e.toString());
+		} catch (JsonSyntaxException e) {
+			LL.w("Broken cached app-list: " + e.toString());
+		}
+		return null;
+	}
+
+	/**
+	 * Whether the snapshot has been validated within {@code ttl}.
+	 *
+	 * @param ttl
+	 * 		Time to live in milliseconds.
+	 *
+	 * @return {@code true} if no revalidation is needed.
+	 */
+	public synchronized boolean isFresh(long ttl) {
+		if (!mFile.exists()) {
+			return false;
+		}
+		String[] stamp = readStamp();
+		if (stamp == null || stamp.length < 2) {
+			return false;
+		}
+		try {
+			return System.currentTimeMillis() - Long.parseLong(stamp[1]) < ttl;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Revalidate snapshot with a payload loaded from network, the snapshot is only touched when they are equal. Call it
+	 * in thread.
+	 *
+	 * @param data
+	 * 		The payload loaded from network.
+	 *
+	 * @return {@code true} if the payload is equal to snapshot, {@code false} if it should be parsed and {@link
+	 * #write(byte[])}.
+	 */
+	public synchronized boolean revalidate(byte[] data) {
+		String hash = hash(data);
+		if (hash == null || !mFile.exists()) {
+			return false;
+		}
+		String[] stamp = readStamp();
+		if (stamp == null || !TextUtils.equals(hash, stamp[0])) {
+			return false;
+		}
+		try {
+			writeStamp(hash);
+		} catch (IOException e) {
+			LL.w("Can't renew cached app-list: " + e.toString());
+		}
+		return true;
+	}
+
+	/**
+	 * Save a new payload of app-list. Call it in thread and only after the payload has been parsed, so that a broken
+	 * payload never replaces the last good snapshot.
+	 *
+	 * @param data
+	 * 		The payload loaded from network.
+	 */
+	public synchronized void write(byte[] data) {
+		String hash = hash(data);
+		try {
+			writeFile(mFile, data);
+			if (hash != null) {
+				writeStamp(hash);
+			} else {
+				mHashFile.delete();
+			}
+		} catch (IOException e) {
+			LL.w("Can't write cached app-list: " + e.toString());
+		}
+	}
+
+	/**
+	 * @return Hash of snapshot and time of last validation, {@code null} if there's none.
+	 */
+	private String[] readStamp() {
+		if (!mHashFile.exists()) {
+			return null;
+		}
+		try {
+			return new String(readFile(mHashFile), "UTF-8").split("\n");
+		} catch (IOException e) {
+			LL.w("Can't read hash of cached app-list: " + e.toString());
+			return null;
+		}
+	}
+
+	private void writeStamp(String hash) throws IOException {
+		writeFile(mHashFile, (hash + "\n" + System.currentTimeMillis()).getBytes("UTF-8"));
+	}
+
+	private static String hash(byte[] data) {
+		try {
+			MessageDigest digester = MessageDigest.getInstance("MD5");
+			return new BigInteger(1, digester.digest(data)).toString(16);
+		} catch (NoSuchAlgorithmException _e) {
+			LL.e("Could not find MD5");
+			return null;
+		}
+	}
+
+	private static byte[] readFile(File file) throws IOException {
+		InputStream input = new FileInputStream(file);
+		try {
+			ByteArrayOutputStream output = new ByteArrayOutputStream((int) file.length());
+			byte[] buf = new byte[8192];
+			int len;
+			while ((len = input.read(buf)) > 0) {
+				output.write(buf, 0, len);
+			}
+			return output.toByteArray();
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Write into a temp file first and rename it, so that a reader never sees a half-written file.
+	 */
+	private static void writeFile(File file, byte[] data) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		OutputStream output = new FileOutputStream(tmp);
+		try {
+			output.write(data);
+		} finally {
+			output.close();
+		}
+		if (!tmp.renameTo(file)) {
+			throw new IOException("Can't rename " + tmp + " to " + file);
+		}
+	}
+}
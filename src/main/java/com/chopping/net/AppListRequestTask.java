@@ -0,0 +1,86 @@
+package com.chopping.net;
+
+import android.content.Context;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+import com.chopping.data.AppList;
+
+/**
+ * Revalidate {@link AppList} against {@link AppListCache}. The result is only delivered when the payload differs from
+ * the snapshot, otherwise {@link OnRevalidatedListener#onNotModified()} is called.
+ *
+ * @author Xinyue Zhao
+ */
+public final class AppListRequestTask extends GsonRequestTask<AppList> {
+	/**
+	 * Listener that is informed when the revalidation ends without a new {@link AppList}.
+	 */
+	public interface OnRevalidatedListener {
+		/**
+		 * The payload is equal to snapshot, nothing is delivered.
+		 */
+		void onNotModified();
+
+		/**
+		 * The revalidation has failed, the snapshot has not been touched.
+		 *
+		 * @param _error
+		 * 		The {@link VolleyError}.
+		 */
+		void onError(VolleyError _error);
+	}
+
+	private final AppListCache mCache;
+	private final OnRevalidatedListener mListener;
+	/**
+	 * {@code true} if the payload is equal to snapshot.
+	 */
+	private volatile boolean mUnchanged;
+
+	public AppListRequestTask(Context _context, String _url, AppListCache _cache, OnRevalidatedListener _listener) {
+		super(_context, Request.Method.GET, _url, AppList.class);
+		//The snapshot is the cache.
+		setShouldCache(false);
+		mCache = _cache;
+		mListener = _listener;
+	}
+
+	@Override
+	protected Response<AppList> parseNetworkResponse(NetworkResponse _response) {
+		//It runs on thread of network.
+		addBandwidthSample(_response);
+		mUnchanged = mCache.revalidate(_response.data);
+		if (mUnchanged) {
+			recordMetrics(_response, 0);
+			return Response.success(null, null);
+		}
+		Response<AppList> response = parseGson(_response);
+		if (response.isSuccess() && response.result != null) {
+			mCache.write(_response.data);
+		}
+		return response;
+	}
+
+	@Override
+	protected void deliverResponse(AppList _response) {
+		if (!mUnchanged && _response != null) {
+			super.deliverResponse(_response);
+		} else if (mListener != null) {
+			mListener.onNotModified();
+		}
+	}
+
+	/**
+	 * A failed revalidation is silent, the snapshot is still shown, so the error isn't posted like other errors of
+	 * {@link GsonRequestTask}.
+	 */
+	@Override
+	public void deliverError(VolleyError _error) {
+		if (mListener != null) {
+			mListener.onError(_error);
+		}
+	}
+}
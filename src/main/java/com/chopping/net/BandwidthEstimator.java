@@ -0,0 +1,147 @@
+package com.chopping.net;
+
+import com.chopping.utils.NetworkUtils;
+
+/**
+ * Estimate bandwidth and latency per type of network from transfers of our requests(Volley and Retrofit). The
+ * estimation is an exponentially weighted moving average, so that newer samples weigh more. {@link ConnectivityMonitor}
+ * resets a type when a network of it has been (re)connected, another network of the same type has its own bandwidth.
+ *
+ * @author Xinyue Zhao
+ */
+public final class BandwidthEstimator {
+	/**
+	 * Weight of a new sample.
+	 */
+	private static final double ALPHA = 0.25;
+	/**
+	 * Transfers smaller than this are dominated by latency and not used for bandwidth.
+	 */
+	private static final long MIN_BYTES_FOR_BANDWIDTH = 4 * 1024;
+	/**
+	 * Count of types, index is one of {@code NetworkUtils.CONNECTION_*}.
+	 */
+	private static final int TYPES = NetworkUtils.CONNECTION_FAST + 1;
+	/**
+	 * Singleton.
+	 */
+	private static final BandwidthEstimator sInstance = new BandwidthEstimator();
+
+	private final double[] mKbps = new double[TYPES];
+	private final int[] mKbpsSamples = new int[TYPES];
+	private final double[] mLatency = new double[TYPES];
+	private final int[] mLatencySamples = new int[TYPES];
+
+	private BandwidthEstimator() {
+	}
+
+	public static BandwidthEstimator getInstance() {
+		return sInstance;
+	}
+
+	/**
+	 * Add a sample of a finished transfer on current network, it is ignored when {@link ConnectivityMonitor} hasn't
+	 * been created.
+	 *
+	 * @param bytes
+	 * 		Size of body, {@code -1} if unknown.
+	 * @param totalMs
+	 * 		Time of whole transfer in milliseconds.
+	 * @param latencyMs
+	 * 		Time until first byte in milliseconds, {@code -1} if unknown.
+	 */
+	public void addSample(long bytes, long totalMs, long latencyMs) {
+		ConnectivityState state = ConnectivityMonitor.peekState();
+		if (state != null && state.isOnline()) {
+			addSample(state.getType(), bytes, totalMs, latencyMs);
+		}
+	}
+
+	/**
+	 * Add a sample of a finished transfer.
+	 *
+	 * @param type
+	 * 		Type of network, one of {@code NetworkUtils.CONNECTION_*}.
+	 * @param bytes
+	 * 		Size of body, {@code -1} if unknown.
+	 * @param totalMs
+	 * 		Time of whole transfer in milliseconds.
+	 * @param latencyMs
+	 * 		Time until first byte in milliseconds, {@code -1} if unknown.
+	 */
+	public synchronized void addSample(byte type, long bytes, long totalMs, long latencyMs) {
+		if (type < 0 || type >= TYPES || totalMs <= 0) {
+			return;
+		}
+		if (latencyMs < 0 && bytes >= 0 && bytes < MIN_BYTES_FOR_BANDWIDTH) {
+			//Small transfer, the whole time is nearly latency.
+			latencyMs = totalMs;
+		}
+		if (latencyMs >= 0) {
+			mLatency[type] = average(mLatency[type], mLatencySamples[type], latencyMs);
+			mLatencySamples[type]++;
+		}
+		if (bytes >= MIN_BYTES_FOR_BANDWIDTH) {
+			long transferMs = latencyMs >= 0 && totalMs > latencyMs ? totalMs - latencyMs : totalMs;
+			double kbps = bytes * 8d / transferMs;
+			mKbps[type] = average(mKbps[type], mKbpsSamples[type], kbps);
+			mKbpsSamples[type]++;
+		}
+	}
+
+	private static double average(double old, int samples, double value) {
+		return samples == 0 ? value : old + ALPHA * (value - old);
+	}
+
+	/**
+	 * @return Estimated bandwidth in kbit/s of {@code type}, {@code -1} if there's no sample.
+	 */
+	public synchronized double getKbps(byte type) {
+		return mKbpsSamples[type] == 0 ? -1 : mKbps[type];
+	}
+
+	/**
+	 * @return Estimated latency in milliseconds of {@code type}, {@code -1} if there's no sample.
+	 */
+	public synchronized double getLatency(byte type) {
+		return mLatencySamples[type] == 0 ? -1 : mLatency[type];
+	}
+
+	/**
+	 * @return Count of bandwidth-samples of {@code type}.
+	 */
+	public synchronized int getKbpsSamples(byte type) {
+		return mKbpsSamples[type];
+	}
+
+	/**
+	 * @return Count of latency-samples of {@code type}.
+	 */
+	public synchronized int getLatencySamples(byte type) {
+		return mLatencySamples[type];
+	}
+
+	/**
+	 * Forget samples of {@code type}, ie. when a new network of the type has been connected.
+	 */
+	public synchronized void reset(byte type) {
+		if (type >= 0 && type < TYPES) {
+			mKbps[type] = 0;
+			mKbpsSamples[type] = 0;
+			mLatency[type] = 0;
+			mLatencySamples[type] = 0;
+		}
+	}
+
+	/**
+	 * Forget all samples.
+	 */
+	public synchronized void reset() {
+		for (int i = 0; i < TYPES; i++) {
+			mKbps[i] = 0;
+			mKbpsSamples[i] = 0;
+			mLatency[i] = 0;
+			mLatencySamples[i] = 0;
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package com.chopping.net;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
+import android.telephony.TelephonyManager;
+
+import com.chopping.application.LL;
+import com.chopping.utils.NetworkUtils;
+
+/**
+ * Process-wide monitor of network connectivity. It subscribes once to changes of network and publishes an immutable
+ * {@link ConnectivityState}, so that helpers like {@link NetworkUtils#isOnline(Context)} answer without IPC.
+ * <p/>
+ * On API 24+ a default-network callback is used, on older devices {@link ConnectivityManager#CONNECTIVITY_ACTION}.
+ * Listeners might be called on a thread that isn't the main-thread, calls are serialized.
+ *
+ * @author Xinyue Zhao
+ */
+public final class ConnectivityMonitor {
+	/**
+	 * Callback when {@link ConnectivityState} has been changed.
+	 */
+	public interface OnConnectivityChangedListener {
+		void onConnectivityChanged(ConnectivityState state);
+	}
+
+	/**
+	 * Singleton.
+	 */
+	private static ConnectivityMonitor sInstance;
+	private final ConnectivityManager mConnectivityManager;
+	/**
+	 * Latest state.
+	 */
+	private final AtomicReference<ConnectivityState> mState = new AtomicReference<ConnectivityState>(
+			ConnectivityState.OFFLINE);
+	private final CopyOnWriteArrayList<OnConnectivityChangedListener> mListeners =
+			new CopyOnWriteArrayList<OnConnectivityChangedListener>();
+
+	private ConnectivityMonitor(Context context) {
+		mConnectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+	}
+
+	/**
+	 * Get the monitor, it subscribes changes of network when it is called first time.
+	 *
+	 * @param context
+	 * 		{@link android.content.Context}.
+	 *
+	 * @return The instance of {@link ConnectivityMonitor}.
+	 */
+	public static synchronized ConnectivityMonitor getInstance(Context context) {
+		if (sInstance == null) {
+			Context app = context.getApplicationContext();
+			sInstance = new ConnectivityMonitor(app);
+			sInstance.refresh();
+			sInstance.subscribe(app);
+		}
+		return sInstance;
+	}
+
+	/**
+	 * Latest state without creating the monitor.
+	 *
+	 * @return Latest {@link ConnectivityState}, {@code null} if the monitor hasn't been created.
+	 */
+	public static synchronized ConnectivityState peekState() {
+		return sInstance == null ? null : sInstance.getState();
+	}
+
+	/**
+	 * @return Latest {@link ConnectivityState}.
+	 */
+	public ConnectivityState getState() {
+		return mState.get();
+	}
+
+	public void addOnConnectivityChangedListener(OnConnectivityChangedListener listener) {
+		mListeners.addIfAbsent(listener);
+	}
+
+	public void removeOnConnectivityChangedListener(OnConnectivityChangedListener listener) {
+		mListeners.remove(listener);
+	}
+
+	private void subscribe(Context app) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+			subscribeNetworkCallback();
+		} else {
+			app.registerReceiver(new BroadcastReceiver() {
+				@Override
+				public void onReceive(Context context, Intent intent) {
+					refresh();
+				}
+			}, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+		}
+	}
+
+	@TargetApi(Build.VERSION_CODES.N)
+	private void subscribeNetworkCallback() {
+		//Inside the callbacks getActiveNetworkInfo() might be stale, state is derived from the given network.
+		mConnectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+			@Override
+			public void onAvailable(Network network) {
+				NetworkCapabilities capabilities = mConnectivityManager.getNetworkCapabilities(network);
+				if (capabilities != null) {
+					publish(network, capabilities);
+				}
+			}
+
+			@Override
+			public void onLost(Network network) {
+				publish(ConnectivityState.OFFLINE);
+			}
+
+			@Override
+			public void onCapabilitiesChanged(Network network, NetworkCapabilities networkCapabilities) {
+				publish(network, networkCapabilities);
+			}
+		});
+	}
+
+	/**
+	 * Read current network and publish a new state if it differs from the latest one.
+	 * <p/>
+	 * Normally it is not necessary to call this, but a receiver of {@link ConnectivityManager#CONNECTIVITY_ACTION}
+	 * might be called before the monitor and should refresh state itself.
+	 *
+	 * @return Latest {@link ConnectivityState}.
+	 */
+	public synchronized ConnectivityState refresh() {
+		ConnectivityState state;
+		try {
+			state = read();
+		} catch (RuntimeException e) {
+			LL.e("Can't read network state: " + e.toString());
+			return mState.get();
+		}
+		publish(state);
+		return state;
+	}
+
+	/**
+	 * Publish {@code state} and inform listeners if it differs from the latest one. Serialized, so that listeners get
+	 * changes in the order they have been read.
+	 * <p/>
+	 * A network that has been connected, or a handover to another type, might differ from the one that has been
+	 * measured, so that {@link BandwidthEstimator} forgets the estimate of the type.
+	 */
+	private synchronized void publish(ConnectivityState state) {
+		ConnectivityState old = mState.getAndSet(state);
+		if (state.isOnline() && (old == null || !old.isOnline() || old.getType() != state.getType())) {
+			BandwidthEstimator.getInstance().reset(state.getType());
+		}
+		if (!state.equals(old)) {
+			for (OnConnectivityChangedListener listener : mListeners) {
+				listener.onConnectivityChanged(state);
+			}
+		}
+	}
+
+	@TargetApi(Build.VERSION_CODES.N)
+	private void publish(Network network, NetworkCapabilities capabilities) {
+		try {
+			publish(read(network, capabilities));
+		} catch (RuntimeException e) {
+			LL.e("Can't read network state: " + e.toString());
+		}
+	}
+
+	@TargetApi(Build.VERSION_CODES.N)
+	private ConnectivityState read(Network network, NetworkCapabilities capabilities) {
+		if (!capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)) {
+			return ConnectivityState.OFFLINE;
+		}
+		boolean metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+		//Info of the given network, only the active one lags behind.
+		NetworkInfo netInfo = mConnectivityManager.getNetworkInfo(network);
+		boolean roaming = netInfo != null && netInfo.isRoaming();
+		byte type;
+		if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+			type = NetworkUtils.CONNECTION_WIFI;
+		} else if (netInfo != null) {
+			type = classify(netInfo);
+		} else {
+			type = NetworkUtils.CONNECTION_SLOW;
+		}
+		return new ConnectivityState(true, type, roaming, metered);
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private ConnectivityState read() {
+		NetworkInfo netInfo = mConnectivityManager.getActiveNetworkInfo();
+		if (netInfo == null) {
+			return ConnectivityState.OFFLINE;
+		}
+		boolean metered = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ?
+				mConnectivityManager.isActiveNetworkMetered() :
+				netInfo.getType() != ConnectivityManager.TYPE_WIFI;
+		//A network that is still connecting is not online but keeps its type, like NetworkUtils did before.
+		return new ConnectivityState(netInfo.isConnected(), classify(netInfo), netInfo.isRoaming(), metered);
+	}
+
+	/**
+	 * Evaluate the network and return the corresponding type, e.g. {@link NetworkUtils#CONNECTION_WIFI}.
+	 */
+	private static byte classify(NetworkInfo netInfo) {
+		if (netInfo.getType() == ConnectivityManager.TYPE_WIFI) {
+			return NetworkUtils.CONNECTION_WIFI;
+		}
+
+		if (netInfo.isRoaming()) {
+			return NetworkUtils.CONNECTION_ROAMING;
+		}
+
+		if (!(netInfo.getType() == ConnectivityManager.TYPE_MOBILE
+				&& (netInfo.getSubtype() == TelephonyManager.NETWORK_TYPE_UMTS
+				|| netInfo.getSubtype() == TelephonyManager.NETWORK_TYPE_HSDPA
+				|| netInfo.getSubtype() == TelephonyManager.NETWORK_TYPE_HSUPA
+				|| netInfo.getSubtype() == TelephonyManager.NETWORK_TYPE_HSPA
+				|| netInfo.getSubtype() == 13 // NETWORK_TYPE_LTE
+				|| netInfo.getSubtype() == 15))) // NETWORK_TYPE_HSPAP
+		{
+
+			return NetworkUtils.CONNECTION_SLOW;
+		}
+
+		return NetworkUtils.CONNECTION_FAST;
+	}
+}
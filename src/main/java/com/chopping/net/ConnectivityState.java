@@ -0,0 +1,87 @@
+package com.chopping.net;
+
+import com.chopping.utils.NetworkUtils;
+
+/**
+ * Immutable snapshot of network connectivity, published by {@link ConnectivityMonitor}.
+ *
+ * @author Xinyue Zhao
+ */
+public final class ConnectivityState {
+	/**
+	 * State when there is no network.
+	 */
+	public static final ConnectivityState OFFLINE = new ConnectivityState(false, NetworkUtils.CONNECTION_OFFLINE,
+			false, false);
+
+	private final boolean mOnline;
+	private final byte mType;
+	private final boolean mRoaming;
+	private final boolean mMetered;
+
+	/**
+	 * Constructor of {@link ConnectivityState}.
+	 *
+	 * @param online
+	 * 		{@code true} if network is connected.
+	 * @param type
+	 * 		Type of network, one of {@code NetworkUtils.CONNECTION_*}.
+	 * @param roaming
+	 * 		{@code true} if network is roaming.
+	 * @param metered
+	 * 		{@code true} if network is metered.
+	 */
+	public ConnectivityState(boolean online, byte type, boolean roaming, boolean metered) {
+		mOnline = online;
+		mType = type;
+		mRoaming = roaming;
+		mMetered = metered;
+	}
+
+	public boolean isOnline() {
+		return mOnline;
+	}
+
+	/**
+	 * @return Type of network, one of {@code NetworkUtils.CONNECTION_*}, e.g. {@link NetworkUtils#CONNECTION_WIFI}.
+	 */
+	public byte getType() {
+		return mType;
+	}
+
+	public boolean isRoaming() {
+		return mRoaming;
+	}
+
+	public boolean isMetered() {
+		return mMetered;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof ConnectivityState)) {
+			return false;
+		}
+		ConnectivityState that = (ConnectivityState) o;
+		return mOnline == that.mOnline && mType == that.mType && mRoaming == that.mRoaming &&
+				mMetered == that.mMetered;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = mOnline ? 1 : 0;
+		result = 31 * result + mType;
+		result = 31 * result + (mRoaming ? 1 : 0);
+		result = 31 * result + (mMetered ? 1 : 0);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "ConnectivityState{online=" + mOnline + ", type=" + mType + ", roaming=" + mRoaming + ", metered=" +
+				mMetered + "}";
+	}
+}
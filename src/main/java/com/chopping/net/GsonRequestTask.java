@@ -80,6 +80,28 @@ public   class GsonRequestTask<T> extends Request<T> {
 
 	@Override
 	protected Response<T> parseNetworkResponse(NetworkResponse _response) {
+		addBandwidthSample(_response);
+		return parseGson(_response);
+	}
+
+
+	/**
+	 * Add a sample of transfer to {@link BandwidthEstimator}. A 304 revalidation delivers the cached body which hasn't
+	 * been transferred, and a cache-hit has no network-time, neither is a sample.
+	 */
+	protected static void addBandwidthSample(NetworkResponse _response) {
+		if (!_response.notModified && _response.networkTimeMs > 0) {
+			BandwidthEstimator.getInstance().addSample(_response.data == null ? -1 : _response.data.length,
+					_response.networkTimeMs, -1);
+		}
+	}
+
+
+	/**
+	 * Parse json of response into {@code T}, time of parsing is recorded in {@link RequestMetrics}.
+	 */
+	protected Response<T> parseGson(NetworkResponse _response) {
+		long start = System.nanoTime();
 		try {
 			String json = new String(_response.data, HttpHeaderParser.parseCharset(_response.headers));
 			return Response.success(TaskHelper.getGson().fromJson(json, mClazz),
@@ -88,6 +110,29 @@ public   class GsonRequestTask<T> extends Request<T> {
 			return Response.error(new ParseError(e));
 		} catch (JsonSyntaxException e) {
 			return Response.error(new ParseError(e));
+		} finally {
+			recordMetrics(_response, (System.nanoTime() - start) / 1000);
+		}
+	}
+
+
+	/**
+	 * Record parse and total(network and parse) of a response in {@link RequestMetrics}. A hit of Volley's cache has no
+	 * network-time, it is not a total.
+	 *
+	 * @param _response
+	 * 		The {@link NetworkResponse}.
+	 * @param _parseMicros
+	 * 		Time of parsing in microseconds, {@code 0} if response has not been parsed.
+	 */
+	protected void recordMetrics(NetworkResponse _response, long _parseMicros) {
+		RequestMetrics metrics = RequestMetrics.getInstance();
+		String endpoint = RequestMetrics.endpointOf(getUrl());
+		if (_parseMicros > 0) {
+			metrics.record(endpoint, RequestMetrics.Phase.PARSE, _parseMicros);
+		}
+		if (_response.networkTimeMs > 0) {
+			metrics.record(endpoint, RequestMetrics.Phase.TOTAL, _response.networkTimeMs * 1000 + _parseMicros);
 		}
 	}
 
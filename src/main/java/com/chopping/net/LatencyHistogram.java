@@ -0,0 +1,108 @@
+package com.chopping.net;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Histogram of latencies in microseconds with fixed memory. Buckets are log-linear: every power of two is split into
+ * {@link #SUB_BUCKETS} linear buckets, so that the error of a percentile is at most about 6% at any magnitude.
+ * <p/>
+ * Values up to {@link #MAX_VALUE} (about 134 seconds) are kept, larger ones count into the last bucket. Recording is
+ * lock-free and can be called on any thread.
+ *
+ * @author Xinyue Zhao
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/**
+	 * Max value in microseconds.
+	 */
+	public static final long MAX_VALUE = (1L << 27) - 1;
+	private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+	private final AtomicIntegerArray mCounts = new AtomicIntegerArray(BUCKETS);
+
+	/**
+	 * Record a latency.
+	 *
+	 * @param micros
+	 * 		Latency in microseconds, negative values are ignored.
+	 */
+	public void record(long micros) {
+		if (micros >= 0) {
+			mCounts.incrementAndGet(index(Math.min(micros, MAX_VALUE)));
+		}
+	}
+
+	/**
+	 * @return Count of recorded values.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += mCounts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Get a percentile.
+	 *
+	 * @param percentile
+	 * 		Percentile in {@code 0..100}, ie. {@code 99} for p99.
+	 *
+	 * @return Latency in microseconds at {@code percentile}, {@code -1} if nothing has been recorded.
+	 */
+	public long getPercentile(double percentile) {
+		int[] counts = new int[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = mCounts.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return -1;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100d * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return valueOf(i);
+			}
+		}
+		return valueOf(BUCKETS - 1);
+	}
+
+	/**
+	 * Forget all recorded values.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			mCounts.set(i, 0);
+		}
+	}
+
+	private static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * @return Middle of bucket {@code index}.
+	 */
+	private static long valueOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int magnitude = index / SUB_BUCKETS + SUB_BITS - 1;
+		int sub = index % SUB_BUCKETS;
+		int shift = magnitude - SUB_BITS;
+		long lower = (long) (SUB_BUCKETS + sub) << shift;
+		return lower + ((1L << shift) >> 1);
+	}
+}
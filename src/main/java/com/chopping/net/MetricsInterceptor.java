@@ -0,0 +1,246 @@
+package com.chopping.net;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+import okhttp3.Dns;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Record network phases of OkHttp calls into {@link RequestMetrics}: DNS by a timed {@link Dns}, connect as the time
+ * between application- and network-interceptor without DNS, TTFB around the network-call and download until the body
+ * has been read.
+ * <p/>
+ * Calls of OkHttp(ie. Retrofit) also give {@link BandwidthEstimator} a sample of the bytes really read from network
+ * and the time until the body has been consumed, or a sample of latency only when the body hasn't been read to its
+ * end. Volley samples its {@link com.android.volley.NetworkResponse} itself.
+ * <p/>
+ * A call runs its chain on one thread, so that the phases of a call are collected in a thread-local. {@link
+ * okhttp3.OkUrlFactory} doesn't run application-interceptors, so {@link OkHttpStack} of Volley opens and closes the
+ * call itself with {@link #beginCall(String, boolean)} and {@link #endCall()}.
+ * <p/>
+ * The shared client of {@link TaskHelper#getHttpClient()} is instrumented.
+ * <pre>
+ * <code>
+ * OkHttpClient client = MetricsInterceptor.install(new OkHttpClient.Builder()).build();
+ * </code>
+ * </pre>
+ *
+ * @author Xinyue Zhao
+ */
+public final class MetricsInterceptor implements Interceptor {
+	/**
+	 * Phases of running call on current thread.
+	 */
+	private static final class CallState {
+		private String mEndpoint;
+		private long mStart;
+		private long mDns;
+		private boolean mConnected;
+		private boolean mSample;
+	}
+
+	private static final ThreadLocal<CallState> sCall = new ThreadLocal<>();
+
+	private final boolean mNetwork;
+
+	private MetricsInterceptor(boolean network) {
+		mNetwork = network;
+	}
+
+	/**
+	 * Install interceptors and timed {@link Dns#SYSTEM} on {@code builder}.
+	 *
+	 * @return {@code builder}.
+	 */
+	public static OkHttpClient.Builder install(OkHttpClient.Builder builder) {
+		return install(builder, Dns.SYSTEM);
+	}
+
+	/**
+	 * Install interceptors and timed {@code dns} on {@code builder}.
+	 *
+	 * @return {@code builder}.
+	 */
+	public static OkHttpClient.Builder install(OkHttpClient.Builder builder, Dns dns) {
+		return builder.addInterceptor(new MetricsInterceptor(false))
+				.addNetworkInterceptor(new MetricsInterceptor(true))
+				.dns(new TimedDns(dns));
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		return mNetwork ? interceptNetwork(chain) : interceptCall(chain);
+	}
+
+	private Response interceptCall(Chain chain) throws IOException {
+		beginCall(RequestMetrics.endpointOf(chain.request().url()), true);
+		try {
+			return chain.proceed(chain.request());
+		} finally {
+			endCall();
+		}
+	}
+
+	/**
+	 * Begin a call on current thread, DNS and connect of the call are recorded under {@code endpoint}.
+	 *
+	 * @param endpoint
+	 * 		Endpoint of {@link RequestMetrics#endpointOf(String)}.
+	 * @param sample
+	 * 		{@code true} if the transfer should be sampled for {@link BandwidthEstimator}.
+	 */
+	static void beginCall(String endpoint, boolean sample) {
+		CallState state = new CallState();
+		state.mEndpoint = endpoint;
+		state.mSample = sample;
+		state.mStart = System.nanoTime();
+		sCall.set(state);
+	}
+
+	/**
+	 * End the call on current thread.
+	 */
+	static void endCall() {
+		sCall.remove();
+	}
+
+	private Response interceptNetwork(Chain chain) throws IOException {
+		RequestMetrics metrics = RequestMetrics.getInstance();
+		CallState state = sCall.get();
+		String endpoint = state != null ? state.mEndpoint : RequestMetrics.endpointOf(chain.request().url());
+		long start = System.nanoTime();
+		if (state != null && !state.mConnected) {
+			//Only first network-call of a call, followed redirects reuse the connection.
+			state.mConnected = true;
+			metrics.record(endpoint, RequestMetrics.Phase.CONNECT, (start - state.mStart - state.mDns) / 1000);
+		}
+		Response response = chain.proceed(chain.request());
+		long headersAt = System.nanoTime();
+		metrics.record(endpoint, RequestMetrics.Phase.TTFB, (headersAt - start) / 1000);
+		ResponseBody body = response.body();
+		if (body == null) {
+			return response;
+		}
+		//A 304 has no body to transfer.
+		boolean sample = state != null && state.mSample && response.code() != HttpURLConnection.HTTP_NOT_MODIFIED;
+		return response.newBuilder().body(new TimedBody(body, endpoint, start, headersAt, sample)).build();
+	}
+
+	/**
+	 * {@link Dns} that records lookups.
+	 */
+	private static final class TimedDns implements Dns {
+		private final Dns mDns;
+
+		private TimedDns(Dns dns) {
+			mDns = dns;
+		}
+
+		@Override
+		public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+			long start = System.nanoTime();
+			try {
+				return mDns.lookup(hostname);
+			} finally {
+				long nanos = System.nanoTime() - start;
+				CallState state = sCall.get();
+				//Without a call the endpoint is unknown, a bare host-name would waste an endpoint.
+				if (state != null) {
+					state.mDns += nanos;
+					RequestMetrics.getInstance().record(state.mEndpoint, RequestMetrics.Phase.DNS, nanos / 1000);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Body that records download when it has been read or closed, it counts the bytes read from network(before
+	 * transparent gzip is decoded).
+	 */
+	private static final class TimedBody extends ResponseBody {
+		private final ResponseBody mBody;
+		private final String mEndpoint;
+		private final long mSentAt;
+		private final long mHeadersAt;
+		private final boolean mSample;
+		private BufferedSource mSource;
+		private long mBytes;
+		private boolean mRecorded;
+
+		private TimedBody(ResponseBody body, String endpoint, long sentAt, long headersAt, boolean sample) {
+			mBody = body;
+			mEndpoint = endpoint;
+			mSentAt = sentAt;
+			mHeadersAt = headersAt;
+			mSample = sample;
+		}
+
+		@Override
+		public MediaType contentType() {
+			return mBody.contentType();
+		}
+
+		@Override
+		public long contentLength() {
+			return mBody.contentLength();
+		}
+
+		@Override
+		public BufferedSource source() {
+			if (mSource == null) {
+				mSource = Okio.buffer(new ForwardingSource(mBody.source()) {
+					@Override
+					public long read(Buffer sink, long byteCount) throws IOException {
+						long read = super.read(sink, byteCount);
+						if (read == -1) {
+							finish(true);
+						} else {
+							mBytes += read;
+						}
+						return read;
+					}
+
+					@Override
+					public void close() throws IOException {
+						finish(false);
+						super.close();
+					}
+				});
+			}
+			return mSource;
+		}
+
+		/**
+		 * @param complete
+		 * 		{@code true} if the body has been read to its end.
+		 */
+		private void finish(boolean complete) {
+			if (mRecorded) {
+				return;
+			}
+			mRecorded = true;
+			long now = System.nanoTime();
+			RequestMetrics.getInstance().record(mEndpoint, RequestMetrics.Phase.DOWNLOAD, (now - mHeadersAt) / 1000);
+			if (mSample) {
+				long latencyMs = (mHeadersAt - mSentAt) / 1000000;
+				if (complete) {
+					BandwidthEstimator.getInstance().addSample(mBytes, (now - mSentAt) / 1000000, latencyMs);
+				} else {
+					BandwidthEstimator.getInstance().addSample(-1, latencyMs, latencyMs);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.chopping.net;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import com.android.volley.toolbox.HurlStack;
+
+import okhttp3.OkHttpClient;
+import okhttp3.OkUrlFactory;
+
+/**
+ * {@link HurlStack} whose connections are opened by an {@link OkHttpClient}, so that Volley shares connection-pool,
+ * TLS-sessions and HTTP/2 connections with Retrofit.
+ * <p/>
+ * {@link OkUrlFactory} skips application-interceptors, so the call of {@link MetricsInterceptor} is begun here. A
+ * network-thread of Volley runs one request at a time, the call is replaced by the next request on the thread.
+ *
+ * @author Xinyue Zhao
+ */
+public final class OkHttpStack extends HurlStack {
+	private final OkUrlFactory mFactory;
+
+	public OkHttpStack(OkHttpClient client) {
+		mFactory = new OkUrlFactory(client);
+	}
+
+	@Override
+	protected HttpURLConnection createConnection(URL url) throws IOException {
+		//Volley samples bandwidth from its NetworkResponse.
+		MetricsInterceptor.beginCall(RequestMetrics.endpointOf(url.toString()), false);
+		return mFactory.open(url);
+	}
+}
@@ -0,0 +1,231 @@
+package com.chopping.net;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.chopping.application.LL;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Latencies of requests of Volley and Retrofit per endpoint and phase in {@link LatencyHistogram}s.
+ * <p/>
+ * Network phases(DNS, connect, TTFB, download) are recorded by {@link MetricsInterceptor} on the shared {@link
+ * okhttp3.OkHttpClient} of {@link TaskHelper}, so they are only recorded for Volley and Retrofit on that client. Parse
+ * and total are recorded by the callers, ie. {@link GsonRequestTask} and {@link com.chopping.rest.RestApiManager}.
+ * <p/>
+ * An endpoint is host and path of url, segments that look like ids are replaced by "*". Count of endpoints is limited
+ * to {@link #MAX_ENDPOINTS}, later endpoints are merged into {@link #OTHER}, so that memory is fixed.
+ *
+ * @author Xinyue Zhao
+ */
+public final class RequestMetrics {
+	/**
+	 * Phases of a request.
+	 */
+	public enum Phase {
+		/**
+		 * Lookup of host.
+		 */
+		DNS,
+		/**
+		 * Setup of connection(TCP and TLS) without DNS, nearly zero when a pooled connection is reused.
+		 */
+		CONNECT,
+		/**
+		 * From sending request until headers of response have been received.
+		 */
+		TTFB,
+		/**
+		 * Reading body of response.
+		 */
+		DOWNLOAD,
+		/**
+		 * Parsing body into objects.
+		 */
+		PARSE,
+		/**
+		 * Whole request seen by caller, hits of Volley's cache are not counted.
+		 */
+		TOTAL
+	}
+
+	/**
+	 * Max count of endpoints.
+	 */
+	public static final int MAX_ENDPOINTS = 32;
+	/**
+	 * Endpoint of all endpoints over {@link #MAX_ENDPOINTS}.
+	 */
+	public static final String OTHER = "other";
+	/**
+	 * Segments of path longer than this are taken as ids.
+	 */
+	private static final int MAX_SEGMENT_LENGTH = 20;
+	private static final RequestMetrics sInstance = new RequestMetrics();
+
+	private final Map<String, LatencyHistogram[]> mHistograms = new ConcurrentHashMap<>();
+	private Handler mDumpHandler;
+	private Runnable mDumpTask;
+
+	private RequestMetrics() {
+	}
+
+	public static RequestMetrics getInstance() {
+		return sInstance;
+	}
+
+	/**
+	 * Record a latency.
+	 *
+	 * @param endpoint
+	 * 		Endpoint by {@link #endpointOf(String)}.
+	 * @param phase
+	 * 		{@link Phase}.
+	 * @param micros
+	 * 		Latency in microseconds.
+	 */
+	public void record(String endpoint, Phase phase, long micros) {
+		histograms(endpoint)[phase.ordinal()].record(micros);
+	}
+
+	/**
+	 * Get a percentile.
+	 *
+	 * @param endpoint
+	 * 		Endpoint by {@link #endpointOf(String)}.
+	 * @param phase
+	 * 		{@link Phase}.
+	 * @param percentile
+	 * 		Percentile in {@code 0..100}.
+	 *
+	 * @return Latency in microseconds, {@code -1} if nothing has been recorded.
+	 */
+	public long getPercentile(String endpoint, Phase phase, double percentile) {
+		LatencyHistogram[] histograms = mHistograms.get(endpoint);
+		return histograms == null ? -1 : histograms[phase.ordinal()].getPercentile(percentile);
+	}
+
+	/**
+	 * @return Recorded endpoints.
+	 */
+	public String[] getEndpoints() {
+		return mHistograms.keySet().toArray(new String[0]);
+	}
+
+	/**
+	 * Forget all recorded latencies.
+	 */
+	public void reset() {
+		mHistograms.clear();
+	}
+
+	/**
+	 * @return p50/p90/p99 in milliseconds of all endpoints and phases, one line per endpoint and phase.
+	 */
+	public String dump() {
+		StringBuilder out = new StringBuilder();
+		for (Map.Entry<String, LatencyHistogram[]> entry : mHistograms.entrySet()) {
+			for (Phase phase : Phase.values()) {
+				LatencyHistogram histogram = entry.getValue()[phase.ordinal()];
+				long count = histogram.getCount();
+				if (count == 0) {
+					continue;
+				}
+				out.append(String.format(Locale.US, "%s %s n=%d p50=%.1fms p90=%.1fms p99=%.1fms%n", entry.getKey(),
+						phase, count, histogram.getPercentile(50) / 1000f, histogram.getPercentile(90) / 1000f,
+						histogram.getPercentile(99) / 1000f));
+			}
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Log {@link #dump()} periodically on main thread until {@link #stopDump()}.
+	 *
+	 * @param intervalMs
+	 * 		Interval in milliseconds.
+	 */
+	public synchronized void startDump(final long intervalMs) {
+		stopDump();
+		mDumpHandler = new Handler(Looper.getMainLooper());
+		mDumpTask = new Runnable() {
+			@Override
+			public void run() {
+				LL.i("Request latencies:\n" + dump());
+				mDumpHandler.postDelayed(this, intervalMs);
+			}
+		};
+		mDumpHandler.postDelayed(mDumpTask, intervalMs);
+	}
+
+	/**
+	 * Stop periodic dump of {@link #startDump(long)}.
+	 */
+	public synchronized void stopDump() {
+		if (mDumpHandler != null) {
+			mDumpHandler.removeCallbacks(mDumpTask);
+			mDumpHandler = null;
+			mDumpTask = null;
+		}
+	}
+
+	private LatencyHistogram[] histograms(String endpoint) {
+		LatencyHistogram[] histograms = mHistograms.get(endpoint);
+		if (histograms != null) {
+			return histograms;
+		}
+		synchronized (mHistograms) {
+			histograms = mHistograms.get(endpoint);
+			if (histograms == null) {
+				if (mHistograms.size() >= MAX_ENDPOINTS && !OTHER.equals(endpoint)) {
+					return histograms(OTHER);
+				}
+				histograms = new LatencyHistogram[Phase.values().length];
+				for (int i = 0; i < histograms.length; i++) {
+					histograms[i] = new LatencyHistogram();
+				}
+				mHistograms.put(endpoint, histograms);
+			}
+			return histograms;
+		}
+	}
+
+	/**
+	 * @return Endpoint of {@code url}, {@link #OTHER} if it isn't a http url.
+	 */
+	public static String endpointOf(String url) {
+		HttpUrl httpUrl = url == null ? null : HttpUrl.parse(url);
+		return httpUrl == null ? OTHER : endpointOf(httpUrl);
+	}
+
+	/**
+	 * @return Endpoint of {@code url}.
+	 */
+	public static String endpointOf(HttpUrl url) {
+		StringBuilder endpoint = new StringBuilder(url.host());
+		for (String segment : url.pathSegments()) {
+			if (segment.length() == 0) {
+				continue;
+			}
+			endpoint.append('/').append(isId(segment) ? "*" : segment);
+		}
+		return endpoint.toString();
+	}
+
+	private static boolean isId(String segment) {
+		if (segment.length() > MAX_SEGMENT_LENGTH) {
+			return true;
+		}
+		for (int i = 0; i < segment.length(); i++) {
+			if (!Character.isDigit(segment.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
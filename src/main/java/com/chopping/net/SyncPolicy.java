@@ -0,0 +1,162 @@
+package com.chopping.net;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.chopping.utils.NetworkUtils;
+
+/**
+ * Choose how much data should be synced, based on the measured bandwidth and latency of current network from {@link
+ * BandwidthEstimator}. Until enough samples have been measured the type of network decides.
+ * <p/>
+ * Without requests there're no new samples, so that a network that has been measured as {@link Mode#LOCAL_ONLY} is
+ * probed with {@link Mode#PARTIAL} once per probe-interval, the estimate recovers when the network does.
+ *
+ * @author Xinyue Zhao
+ */
+public final class SyncPolicy {
+	/**
+	 * How much data should be synced.
+	 */
+	public enum Mode {
+		/**
+		 * Load all data from server.
+		 */
+		FULL,
+		/**
+		 * Load only a part(ie. the first page) from server.
+		 */
+		PARTIAL,
+		/**
+		 * Show local data only.
+		 */
+		LOCAL_ONLY
+	}
+
+	/**
+	 * Samples needed before measured values are trusted.
+	 */
+	private static int sMinSamples = 3;
+	/**
+	 * Min bandwidth in kbit/s for {@link Mode#FULL}.
+	 */
+	private static double sFullKbps = 1000;
+	/**
+	 * Max latency in milliseconds for {@link Mode#FULL}.
+	 */
+	private static double sFullLatency = 400;
+	/**
+	 * Min bandwidth in kbit/s for {@link Mode#PARTIAL}.
+	 */
+	private static double sPartialKbps = 150;
+	/**
+	 * Max latency in milliseconds for {@link Mode#PARTIAL}.
+	 */
+	private static double sPartialLatency = 1500;
+	/**
+	 * Interval in milliseconds of probes while the network has been measured as {@link Mode#LOCAL_ONLY}.
+	 */
+	private static long sProbeInterval = 60 * 1000;
+	/**
+	 * {@link SystemClock#elapsedRealtime()} of last probe.
+	 */
+	private static long sLastProbe;
+
+	private SyncPolicy() {
+	}
+
+	/**
+	 * Set thresholds of policy.
+	 *
+	 * @param minSamples
+	 * 		Samples needed before measured values are trusted.
+	 * @param fullKbps
+	 * 		Min bandwidth in kbit/s for {@link Mode#FULL}.
+	 * @param fullLatency
+	 * 		Max latency in milliseconds for {@link Mode#FULL}.
+	 * @param partialKbps
+	 * 		Min bandwidth in kbit/s for {@link Mode#PARTIAL}.
+	 * @param partialLatency
+	 * 		Max latency in milliseconds for {@link Mode#PARTIAL}.
+	 */
+	public static void setThresholds(int minSamples, double fullKbps, double fullLatency, double partialKbps,
+			double partialLatency) {
+		sMinSamples = minSamples;
+		sFullKbps = fullKbps;
+		sFullLatency = fullLatency;
+		sPartialKbps = partialKbps;
+		sPartialLatency = partialLatency;
+	}
+
+	/**
+	 * Set interval of probes while the network has been measured as {@link Mode#LOCAL_ONLY}.
+	 *
+	 * @param probeInterval
+	 * 		Interval in milliseconds.
+	 */
+	public static void setProbeInterval(long probeInterval) {
+		sProbeInterval = probeInterval;
+	}
+
+	/**
+	 * Decide how much data should be synced on current network.
+	 *
+	 * @param cxt
+	 * 		{@link android.content.Context}.
+	 *
+	 * @return {@link Mode}.
+	 */
+	public static Mode decide(Context cxt) {
+		ConnectivityState state = ConnectivityMonitor.getInstance(cxt).getState();
+		if (!state.isOnline() || state.getType() == NetworkUtils.CONNECTION_ROAMING) {
+			return Mode.LOCAL_ONLY;
+		}
+		byte type = state.getType();
+		BandwidthEstimator estimator = BandwidthEstimator.getInstance();
+		boolean hasKbps = estimator.getKbpsSamples(type) >= sMinSamples;
+		boolean hasLatency = estimator.getLatencySamples(type) >= sMinSamples;
+		if (!hasKbps && !hasLatency) {
+			return decideByType(type);
+		}
+		double kbps = estimator.getKbps(type);
+		double latency = estimator.getLatency(type);
+		if ((!hasKbps || kbps >= sFullKbps) && (!hasLatency || latency <= sFullLatency)) {
+			return Mode.FULL;
+		}
+		if ((!hasKbps || kbps >= sPartialKbps) && (!hasLatency || latency <= sPartialLatency)) {
+			return Mode.PARTIAL;
+		}
+		return probe() ? Mode.PARTIAL : Mode.LOCAL_ONLY;
+	}
+
+	/**
+	 * @return {@code true} if a probe is due, it is counted as done.
+	 */
+	private static synchronized boolean probe() {
+		long now = SystemClock.elapsedRealtime();
+		if (sLastProbe == 0) {
+			//Just measured, the interval starts.
+			sLastProbe = now;
+			return false;
+		}
+		if (now - sLastProbe >= sProbeInterval) {
+			sLastProbe = now;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Decide by type of network when nothing has been measured.
+	 */
+	private static Mode decideByType(byte type) {
+		switch (type) {
+			case NetworkUtils.CONNECTION_WIFI:
+				return Mode.FULL;
+			case NetworkUtils.CONNECTION_FAST:
+				return Mode.PARTIAL;
+			default:
+				return Mode.LOCAL_ONLY;
+		}
+	}
+}
@@ -10,6 +10,10 @@ import com.android.volley.toolbox.ImageLoader.ImageCache;
 import com.android.volley.toolbox.Volley;
 import com.google.gson.Gson;
 
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
 
 public final class TaskHelper {
 
@@ -17,6 +21,10 @@ public final class TaskHelper {
 	private static final Gson sGson = new Gson();
 	private static RequestQueue sRequestQueue;
 	private static ImageLoader sImageLoader;
+	/**
+	 * The HTTP client shared by Volley and Retrofit.
+	 */
+	private static OkHttpClient sHttpClient;
 
 
 	private TaskHelper() {
@@ -24,12 +32,60 @@ public final class TaskHelper {
 	}
 
 
+	/**
+	 * Init Volley on the shared {@link OkHttpClient} of {@link #getHttpClient()}.
+	 */
 	public static void init(Context _context) {
-		sRequestQueue = Volley.newRequestQueue(_context);
+		init(_context, getHttpClient());
+	}
+
+
+	/**
+	 * Init Volley on {@code _client}, it becomes the shared client that {@link #newRetrofitBuilder(String)} uses too,
+	 * so that all requests are configured in one place and share pooled connections.
+	 *
+	 * @param _context
+	 * 		{@link android.content.Context}.
+	 * @param _client
+	 * 		The {@link OkHttpClient}, ie. built from {@link #newHttpClientBuilder()}.
+	 */
+	public static synchronized void init(Context _context, OkHttpClient _client) {
+		sHttpClient = _client;
+		sRequestQueue = Volley.newRequestQueue(_context, new OkHttpStack(_client));
 		sImageLoader = new ImageLoader(sRequestQueue, new BitmapLruCache(MAX_IMAGE_CACHE_ENTIRES));
 	}
 
 
+	/**
+	 * @return A builder of {@link OkHttpClient} with instrumentation of {@link MetricsInterceptor}, for a custom
+	 * shared client given to {@link #init(Context, OkHttpClient)}.
+	 */
+	public static OkHttpClient.Builder newHttpClientBuilder() {
+		return MetricsInterceptor.install(new OkHttpClient.Builder());
+	}
+
+
+	/**
+	 * @return The {@link OkHttpClient} shared by Volley and Retrofit, a default one is created when none has been
+	 * given to {@link #init(Context, OkHttpClient)}.
+	 */
+	public static synchronized OkHttpClient getHttpClient() {
+		if (sHttpClient == null) {
+			sHttpClient = newHttpClientBuilder().build();
+		}
+		return sHttpClient;
+	}
+
+
+	/**
+	 * @return A builder of {@link Retrofit} on the shared {@link OkHttpClient} with Gson of {@link #getGson()}.
+	 */
+	public static Retrofit.Builder newRetrofitBuilder(String _baseUrl) {
+		return new Retrofit.Builder().baseUrl(_baseUrl).client(getHttpClient())
+				.addConverterFactory(GsonConverterFactory.create(sGson));
+	}
+
+
 	public static RequestQueue getRequestQueue() {
 		if (sRequestQueue != null) {
 			return sRequestQueue;
@@ -0,0 +1,63 @@
+package com.chopping.rest;
+
+import java.util.Map;
+
+import android.text.TextUtils;
+import android.util.Log;
+
+/**
+ * Write children of a Firebase collection into Realm and index their keys against request-id. It is the part of a
+ * {@link RestFireManager.Subscription} that doesn't depend on Firebase.
+ *
+ * @author Xinyue Zhao
+ */
+final class FireChildSink {
+	/**
+	 * Collection of Firebase keys associated with request-id.
+	 */
+	private final Map<String, String> mKeyList;
+
+	FireChildSink( Map<String, String> keyList ) {
+		mKeyList = keyList;
+	}
+
+	void added( String key, RestObject serverData ) {
+		serverData.updateDB( RestObject.SYNCED );
+		if( !TextUtils.isEmpty( key ) ) {
+			mKeyList.put(
+					serverData.getReqId(),
+					key
+			);
+			Log.i(
+					"Fire Mgr",
+					"onChildAdded: <-" + key
+			);
+		}
+	}
+
+	void removed( String key, RestObject serverData ) {
+		String reqId = serverData.getReqId();
+		serverData.updateDB( RestObject.DELETE_SYNCED );
+		if( !TextUtils.isEmpty( key ) ) {
+			mKeyList.remove( reqId );
+			Log.i(
+					"Fire Mgr",
+					"onChildRemoved: ->" + key
+			);
+		}
+	}
+
+	void changed( String key, RestObject serverData ) {
+		serverData.updateDB( RestObject.UPDATE_SYNCED );
+		if( !TextUtils.isEmpty( key ) ) {
+			mKeyList.put(
+					serverData.getReqId(),
+					key
+			);
+			Log.i(
+					"Fire Mgr",
+					"onChildChanged: #" + key
+			);
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.chopping.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Pending {@link RestObject}s that have been replayed by {@link com.chopping.utils.RestUtils#executePending(ExecutePending,
+ * int)} and whose requests haven't been answered yet. A replay skips them, so that another trigger never sends an item
+ * again while its first request is still on the way.
+ * <p/>
+ * {@link RestApiManager} and {@link RestFireManager} call {@link #done(RestObject)} when the request of an item has
+ * been answered. An item that is never reported, ie. sent by an own {@link ExecutePending}, is given free after {@link
+ * #TIMEOUT}.
+ * <p/>
+ * When a replay runs on a thread with {@link Looper}, ie. main-thread where Retrofit and Firebase deliver their
+ * answers, its {@link RealmSession} is kept open until all of its items have been answered, so that {@link
+ * RestObject#updateDB(int)} of the answers reuses the Realm of the replay.
+ *
+ * @author Xinyue Zhao
+ */
+public final class PendingFlights {
+	/**
+	 * Time in milliseconds after which an unanswered item can be replayed again.
+	 */
+	public static final long TIMEOUT = 60 * 1000;
+	/**
+	 * Items in flight.
+	 */
+	private static final Map<String, Flight> sFlights = new ConcurrentHashMap<>();
+
+	/**
+	 * An item in flight.
+	 */
+	private static final class Flight {
+		private final long mDeadline;
+		private final Pass mPass;
+
+		private Flight( long deadline, Pass pass ) {
+			mDeadline = deadline;
+			mPass = pass;
+		}
+	}
+
+	/**
+	 * Items that have been taken by one replay, it holds the {@link RealmSession} of the thread of replay.
+	 */
+	private static final class Pass implements Runnable {
+		private final Handler mHandler = new Handler();
+		private       int     mRemaining;
+		private       boolean mEnded;
+
+		private Pass( int count ) {
+			mRemaining = count;
+			RealmSession.begin();
+			mHandler.postDelayed(
+					this,
+					TIMEOUT
+			);
+		}
+
+		private synchronized void done() {
+			if( --mRemaining == 0 ) {
+				mHandler.post( this );
+			}
+		}
+
+		/**
+		 * End the session on the thread of replay.
+		 */
+		@Override
+		public void run() {
+			synchronized( this ) {
+				if( mEnded ) {
+					return;
+				}
+				mEnded = true;
+			}
+			mHandler.removeCallbacks( this );
+			RealmSession.end();
+		}
+	}
+
+	private PendingFlights() {
+	}
+
+	/**
+	 * Take items that are not in flight and mark them in flight.
+	 *
+	 * @param items
+	 * 		Pending items loaded from Realm.
+	 *
+	 * @return Items that should be replayed.
+	 */
+	public static List<RestObject> take( List<RestObject> items ) {
+		long             now   = System.currentTimeMillis();
+		List<RestObject> taken = new ArrayList<>( items.size() );
+		for( RestObject item : items ) {
+			if( item == null ) {
+				continue;
+			}
+			Flight flight = sFlights.get( keyOf( item ) );
+			if( flight == null || flight.mDeadline <= now ) {
+				taken.add( item );
+			}
+		}
+		if( taken.isEmpty() ) {
+			return taken;
+		}
+		Pass pass = Looper.myLooper() == null ? null : new Pass( taken.size() );
+		for( RestObject item : taken ) {
+			Flight old = sFlights.put(
+					keyOf( item ),
+					new Flight(
+							now + TIMEOUT,
+							pass
+					)
+			);
+			if( old != null && old.mPass != null ) {
+				//Timed out, the old pass doesn't wait for it anymore.
+				old.mPass.done();
+			}
+		}
+		return taken;
+	}
+
+	/**
+	 * The request of {@code item} has been answered, successful or not.
+	 */
+	public static void done( RestObject item ) {
+		Flight flight = sFlights.remove( keyOf( item ) );
+		if( flight != null && flight.mPass != null ) {
+			flight.mPass.done();
+		}
+	}
+
+	private static String keyOf( RestObject item ) {
+		return item.DBType()
+				   .getName() + "#" + item.getReqId();
+	}
+}
@@ -0,0 +1,180 @@
+package com.chopping.rest;
+
+import java.io.File;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.chopping.application.LL;
+
+import io.realm.Realm;
+import io.realm.RealmConfiguration;
+
+/**
+ * Compact the default Realm when the file has grown too much over its live data, ie. after heavy churn of {@link
+ * RestObject#updateDB(int)} and {@link com.chopping.utils.RestUtils#clear(Class)}.
+ * <p/>
+ * Realm doesn't report used size, so the size right after last compaction is taken as used size, the first evaluation
+ * only records the size of file as used size. The file will be compacted when the waste over it exceeds thresholds.
+ * <p/>
+ * Compaction runs in a background thread and can only succeed when no instance of Realm is open, a failed try will be
+ * repeated at next evaluation. It locks Realm for the whole rewrite of file, evaluate only when the application goes
+ * idle, ie. {@link com.chopping.activities.RestfulActivity} does it when the last one is finishing.
+ *
+ * @author Xinyue Zhao
+ */
+public final class RealmCompactor {
+	/**
+	 * Callback after evaluation.
+	 */
+	public interface OnCompactedListener {
+		/**
+		 * Called in the background thread after Realm has been compacted.
+		 *
+		 * @param before
+		 * 		Size of file before compaction.
+		 * @param after
+		 * 		Size of file after compaction.
+		 */
+		void onCompacted( long before, long after );
+	}
+
+	private static final String PREFS_NAME     = "chopping.realm.compactor";
+	private static final String KEY_USED_SIZE  = "used_size";
+	/**
+	 * Default ratio of waste in file to compact.
+	 */
+	public static final  float  DEFAULT_RATIO  = 0.5f;
+	/**
+	 * Default min bytes of waste to compact.
+	 */
+	public static final  long   DEFAULT_MIN_WASTE = 5 * 1024 * 1024;
+
+	private static float   sRatio    = DEFAULT_RATIO;
+	private static long    sMinWaste = DEFAULT_MIN_WASTE;
+	private static boolean sRunning;
+
+	private RealmCompactor() {
+	}
+
+	/**
+	 * Set thresholds of compaction, both must be exceeded.
+	 *
+	 * @param ratio
+	 * 		Ratio of waste to size of file.
+	 * @param minWaste
+	 * 		Min bytes of waste.
+	 */
+	public static void setThresholds( float ratio, long minWaste ) {
+		sRatio = ratio;
+		sMinWaste = minWaste;
+	}
+
+	/**
+	 * Evaluate the default Realm and compact it in background if necessary. Call it when the application goes idle, never
+	 * at startup, {@link Realm#getDefaultInstance()} on main-thread would wait for the compaction.
+	 *
+	 * @param cxt
+	 * 		{@link Context}.
+	 * @param listener
+	 * 		{@link OnCompactedListener}, could be {@code null}.
+	 */
+	public static void compactIfNeeded( Context cxt, final OnCompactedListener listener ) {
+		final Context app = cxt.getApplicationContext();
+		synchronized( RealmCompactor.class ) {
+			if( sRunning ) {
+				return;
+			}
+			sRunning = true;
+		}
+		Thread thread = new Thread(
+				new Runnable() {
+					@Override
+					public void run() {
+						try {
+							compact(
+									app,
+									listener
+							);
+						} finally {
+							synchronized( RealmCompactor.class ) {
+								sRunning = false;
+							}
+						}
+					}
+				},
+				"RealmCompactor"
+		);
+		thread.setPriority( Thread.MIN_PRIORITY );
+		thread.start();
+	}
+
+	private static void compact( Context app, OnCompactedListener listener ) {
+		RealmConfiguration config = Realm.getDefaultConfiguration();
+		if( config == null ) {
+			return;
+		}
+		File file = new File( config.getPath() );
+		if( !file.exists() ) {
+			return;
+		}
+		SharedPreferences prefs  = app.getSharedPreferences(
+				PREFS_NAME,
+				Context.MODE_PRIVATE
+		);
+		long              before = file.length();
+		long              used   = prefs.getLong(
+				KEY_USED_SIZE,
+				-1
+		);
+		if( used < 0 ) {
+			//First evaluation, measure from now on.
+			prefs.edit()
+				 .putLong(
+						 KEY_USED_SIZE,
+						 before
+				 )
+				 .commit();
+			return;
+		}
+		long waste = before - used;
+		if( waste < sMinWaste || waste < before * sRatio ) {
+			LL.d( String.format(
+					"Realm needs no compaction, size: %d, used: %d.",
+					before,
+					used
+			) );
+			return;
+		}
+		boolean compacted;
+		try {
+			compacted = Realm.compactRealm( config );
+		} catch( RuntimeException e ) {
+			//Some instances are open.
+			LL.w( "Can't compact Realm now: " + e.toString() );
+			return;
+		}
+		if( !compacted ) {
+			LL.w( "Can't compact Realm." );
+			return;
+		}
+		long after = file.length();
+		prefs.edit()
+			 .putLong(
+					 KEY_USED_SIZE,
+					 after
+			 )
+			 .commit();
+		LL.i( String.format(
+				"Realm compacted from %d to %d bytes.",
+				before,
+				after
+		) );
+		if( listener != null ) {
+			listener.onCompacted(
+					before,
+					after
+			);
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package com.chopping.rest;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+
+import io.realm.RealmObject;
+import io.realm.RealmResults;
+
+/**
+ * A sliding window over {@link RealmResults}. Instead of walking a whole table the client reads only the items of the
+ * window, further pages are loaded when the client comes close to the end(or begin) of the window.
+ * <p/>
+ * When placeholders are enabled {@link #size()} reports all items of the query and positions outside of the window
+ * return {@code null}, the window is then limited to {@code maxPages} and trimmed on the other side while scrolling.
+ * Without placeholders the window always starts at {@code 0} and only grows.
+ * <p/>
+ * {@link #onItemAccessed(int)} is called while binding, ie. inside a layout of {@link
+ * android.support.v7.widget.RecyclerView}, so the window is moved on the next loop of the thread and {@link
+ * #size()} keeps its value until the listener has been called.
+ *
+ * @author Xinyue Zhao
+ */
+public final class RealmPager<T extends RealmObject> {
+	/**
+	 * Callback when the window has been changed.
+	 */
+	public interface OnWindowChangedListener {
+		/**
+		 * Called when the window has been moved or resized.
+		 *
+		 * @param start
+		 * 		First position of window, inclusive.
+		 * @param end
+		 * 		Last position of window, exclusive.
+		 */
+		void onWindowChanged( int start, int end );
+	}
+
+	private final RealmResults<T>         mResults;
+	private final int                     mPageSize;
+	private final int                     mPrefetchDistance;
+	private final int                     mMaxPages;
+	private final boolean                 mPlaceholders;
+	private       OnWindowChangedListener mListener;
+	/**
+	 * First position of window, inclusive.
+	 */
+	private       int                     mStart;
+	/**
+	 * Last position of window, exclusive.
+	 */
+	private       int                     mEnd;
+	/**
+	 * Moves the window after binding, {@code null} on a thread without {@link Looper}.
+	 */
+	private final Handler                 mHandler;
+	/**
+	 * Smallest and largest positions accessed since the window has been moved last time, {@code -1} if none.
+	 */
+	private       int                     mMinAccessed = -1;
+	private       int                     mMaxAccessed = -1;
+	private final Runnable                mMoveWindow  = new Runnable() {
+		@Override
+		public void run() {
+			moveWindow();
+		}
+	};
+
+
+	/**
+	 * Constructor of {@link RealmPager}.
+	 *
+	 * @param results
+	 * 		The {@link RealmResults} of query, could be async.
+	 * @param pageSize
+	 * 		Count of items of one page.
+	 * @param prefetchDistance
+	 * 		Distance to the edge of window, a new page will be loaded when an item within this distance is accessed.
+	 * @param maxPages
+	 * 		Max count of pages that the window holds, only used when {@code placeholders} is {@code true}, {@code 0} means
+	 * 		no limit.
+	 * @param placeholders
+	 * 		{@code true} if {@link #size()} reports all items and positions outside window return {@code null}.
+	 */
+	public RealmPager( RealmResults<T> results, int pageSize, int prefetchDistance, int maxPages, boolean placeholders ) {
+		if( pageSize <= 0 ) {
+			throw new IllegalArgumentException( "RealmPager: pageSize must be greater than 0." );
+		}
+		mResults = results;
+		mPageSize = pageSize;
+		mPrefetchDistance = Math.max(
+				0,
+				Math.min(
+						prefetchDistance,
+						pageSize
+				)
+		);
+		mMaxPages = placeholders ? maxPages : 0;
+		mPlaceholders = placeholders;
+		mStart = 0;
+		mEnd = pageSize;
+		mHandler = Looper.myLooper() == null ? null : new Handler();
+	}
+
+	/**
+	 * Create a {@link RealmPager} for results of any type.
+	 */
+	public static <E extends RealmObject> RealmPager<E> create( RealmResults<E> results, int pageSize, int prefetchDistance, int maxPages, boolean placeholders ) {
+		return new RealmPager<>(
+				results,
+				pageSize,
+				prefetchDistance,
+				maxPages,
+				placeholders
+		);
+	}
+
+	public void setOnWindowChangedListener( OnWindowChangedListener listener ) {
+		mListener = listener;
+	}
+
+	/**
+	 * @return Count of items that the client should show. With placeholders it is the count of all items of query,
+	 * otherwise the count of loaded items.
+	 */
+	public int size() {
+		int total = mResults.isLoaded() ? mResults.size() : 0;
+		return mPlaceholders ? total : Math.min(
+				mEnd,
+				total
+		);
+	}
+
+	/**
+	 * @return {@code true} if there are items behind the window.
+	 */
+	public boolean hasMore() {
+		return mResults.isLoaded() && mEnd < mResults.size();
+	}
+
+	/**
+	 * Get item at {@code position}, it doesn't move the window, call {@link #onItemAccessed(int)} when the item will be
+	 * shown(ie. on bind or on scroll).
+	 *
+	 * @param position
+	 * 		Position of item.
+	 *
+	 * @return The item or {@code null} as placeholder when the item is not inside window.
+	 */
+	public
+	@Nullable
+	T get( int position ) {
+		if( position < 0 || position >= size() ) {
+			return null;
+		}
+		if( position < mStart || position >= mEnd ) {
+			return null;
+		}
+		return mResults.get( position );
+	}
+
+	/**
+	 * Tell pager that an item at {@code position} is going to be shown, the window will be moved when the position is
+	 * within prefetch distance. It is safe to call it on bind, the window is moved and the listener is called on the
+	 * next loop of thread.
+	 */
+	public void onItemAccessed( int position ) {
+		if( mMaxAccessed < 0 ) {
+			mMinAccessed = position;
+			mMaxAccessed = position;
+			if( mHandler == null ) {
+				moveWindow();
+				return;
+			}
+			mHandler.post( mMoveWindow );
+		} else {
+			mMinAccessed = Math.min(
+					mMinAccessed,
+					position
+			);
+			mMaxAccessed = Math.max(
+					mMaxAccessed,
+					position
+			);
+		}
+	}
+
+	private void moveWindow() {
+		int maxAccessed = mMaxAccessed;
+		int minAccessed = mMinAccessed;
+		mMinAccessed = -1;
+		mMaxAccessed = -1;
+		if( maxAccessed < 0 ) {
+			return;
+		}
+		int oldStart = mStart;
+		int oldEnd   = mEnd;
+		if( maxAccessed >= mEnd - mPrefetchDistance ) {
+			while( maxAccessed >= mEnd - mPrefetchDistance && hasMore() ) {
+				mEnd += mPageSize;
+			}
+			trimStart();
+		} else if( mPlaceholders && mStart > 0 && minAccessed < mStart + mPrefetchDistance ) {
+			while( mStart > 0 && minAccessed < mStart + mPrefetchDistance ) {
+				mStart = Math.max(
+						0,
+						mStart - mPageSize
+				);
+			}
+			trimEnd();
+		}
+		if( oldStart != mStart || oldEnd != mEnd ) {
+			notifyWindowChanged();
+		}
+	}
+
+	/**
+	 * Clamp the window to the results after they have been changed, ie. items have been removed. Call it in the {@link
+	 * io.realm.RealmChangeListener} of {@link #getResults()}, the listener is not called.
+	 */
+	public void onResultsChanged() {
+		if( !mResults.isLoaded() ) {
+			return;
+		}
+		int total  = mResults.size();
+		int maxEnd = Math.max(
+				mPageSize,
+				( total + mPageSize - 1 ) / mPageSize * mPageSize
+		);
+		if( mEnd > maxEnd ) {
+			mEnd = maxEnd;
+		}
+		if( mStart >= mEnd ) {
+			mStart = Math.max(
+					0,
+					mEnd - mPageSize
+			);
+		}
+	}
+
+	/**
+	 * Load the next page manually, for example when list shows a "load more" footer.
+	 *
+	 * @return {@code true} if a new page has been loaded.
+	 */
+	public boolean loadNextPage() {
+		if( !hasMore() ) {
+			return false;
+		}
+		mEnd += mPageSize;
+		trimStart();
+		notifyWindowChanged();
+		return true;
+	}
+
+	/**
+	 * Move window to the first page again, for example after query has been changed.
+	 */
+	public void reset() {
+		if( mHandler != null ) {
+			mHandler.removeCallbacks( mMoveWindow );
+		}
+		mMinAccessed = -1;
+		mMaxAccessed = -1;
+		mStart = 0;
+		mEnd = mPageSize;
+		notifyWindowChanged();
+	}
+
+	public int getWindowStart() {
+		return mStart;
+	}
+
+	public int getWindowEnd() {
+		return mResults.isLoaded() ? Math.min(
+				mEnd,
+				mResults.size()
+		) : 0;
+	}
+
+	public RealmResults<T> getResults() {
+		return mResults;
+	}
+
+	private void trimStart() {
+		if( mMaxPages > 0 && mEnd - mStart > mMaxPages * mPageSize ) {
+			mStart = mEnd - mMaxPages * mPageSize;
+		}
+	}
+
+	private void trimEnd() {
+		if( mMaxPages > 0 && mEnd - mStart > mMaxPages * mPageSize ) {
+			mEnd = mStart + mMaxPages * mPageSize;
+		}
+	}
+
+	private void notifyWindowChanged() {
+		if( mListener != null ) {
+			mListener.onWindowChanged(
+					mStart,
+					getWindowEnd()
+			);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package com.chopping.rest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.chopping.application.LL;
+
+import io.realm.Realm;
+
+/**
+ * Thread-confined provider of {@link Realm} for sync. Between {@link #begin()} and {@link #end()} all {@link
+ * #acquire()} on the same thread return one open instance, so that many tiny operations of a sync don't open and close
+ * Realm each time.
+ * <p/>
+ * Sessions can be nested, the instance is closed by the outermost {@link #end()}. Sessions that are never ended can be
+ * found by {@link #checkLeaks(long)}, debug builds of {@link com.chopping.activities.RestfulActivity} check it when App
+ * goes idle.
+ * <p/>
+ * <pre>
+ * <code>
+ * RealmSession.begin();
+ * try {
+ * 	//sync...
+ * } finally {
+ * 	RealmSession.end();
+ * }
+ * </code>
+ * </pre>
+ *
+ * @author Xinyue Zhao
+ */
+public final class RealmSession {
+	/**
+	 * The session of a thread.
+	 */
+	private static final class Session {
+		private final Realm     mRealm;
+		/**
+		 * Where the session has been begun, for reports of leaks.
+		 */
+		private final Throwable mOrigin;
+		private final long      mBeginTime;
+		private       int       mDepth;
+
+		private Session( Realm realm ) {
+			mRealm = realm;
+			mOrigin = new Throwable( "RealmSession begun on " + Thread.currentThread()
+																	 .getName() );
+			mBeginTime = System.currentTimeMillis();
+		}
+	}
+
+	private static final ThreadLocal<Session>     sSession      = new ThreadLocal<>();
+	/**
+	 * All open sessions, for leak detection.
+	 */
+	private static final Map<Thread, Session> sOpenSessions = new ConcurrentHashMap<>();
+
+	private RealmSession() {
+	}
+
+	/**
+	 * Begin a session on current thread, it opens default {@link Realm} if there's no session.
+	 */
+	public static void begin() {
+		Session session = sSession.get();
+		if( session == null ) {
+			session = new Session( Realm.getDefaultInstance() );
+			sSession.set( session );
+			sOpenSessions.put(
+					Thread.currentThread(),
+					session
+			);
+		}
+		session.mDepth++;
+	}
+
+	/**
+	 * End a session on current thread, the instance will be closed when the outermost session ends.
+	 */
+	public static void end() {
+		Session session = sSession.get();
+		if( session == null ) {
+			LL.w( "RealmSession#end without begin." );
+			return;
+		}
+		session.mDepth--;
+		if( session.mDepth <= 0 ) {
+			sSession.remove();
+			sOpenSessions.remove( Thread.currentThread() );
+			if( !session.mRealm.isClosed() ) {
+				if( session.mRealm.isInTransaction() ) {
+					LL.w( "RealmSession ends in transaction, it is cancelled." );
+					session.mRealm.cancelTransaction();
+				}
+				session.mRealm.close();
+			}
+		}
+	}
+
+	/**
+	 * Get a {@link Realm} for current thread, it is the instance of session if any, otherwise a new default instance.
+	 * Always give it back by {@link #release(Realm)}.
+	 */
+	public static Realm acquire() {
+		Session session = sSession.get();
+		if( session != null && !session.mRealm.isClosed() ) {
+			return session.mRealm;
+		}
+		return Realm.getDefaultInstance();
+	}
+
+	/**
+	 * Give back an instance of {@link #acquire()}, it is closed unless it belongs to the session of current thread.
+	 */
+	public static void release( Realm db ) {
+		Session session = sSession.get();
+		if( session != null && session.mRealm == db ) {
+			return;
+		}
+		if( !db.isClosed() ) {
+			db.close();
+		}
+	}
+
+	/**
+	 * Report sessions which have been left open. A session is leaked when its thread has died, or suspicious when it is
+	 * older than {@code maxAgeMs}.
+	 *
+	 * @param maxAgeMs
+	 * 		Max age of a session in milliseconds, {@code <= 0} reports only dead threads.
+	 *
+	 * @return Count of reported sessions.
+	 */
+	public static int checkLeaks( long maxAgeMs ) {
+		int  count = 0;
+		long now   = System.currentTimeMillis();
+		for( Map.Entry<Thread, Session> entry : sOpenSessions.entrySet() ) {
+			Thread  thread  = entry.getKey();
+			Session session = entry.getValue();
+			if( !thread.isAlive() ) {
+				LL.e(
+						"Leaked RealmSession, thread died without end().",
+						session.mOrigin
+				);
+				sOpenSessions.remove( thread );
+				count++;
+			} else if( maxAgeMs > 0 && now - session.mBeginTime > maxAgeMs ) {
+				LL.w(
+						String.format(
+								"RealmSession open for %d ms.",
+								now - session.mBeginTime
+						),
+						session.mOrigin
+				);
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -3,6 +3,8 @@ package com.chopping.rest;
 import android.util.Log;
 
 import com.chopping.bus.RestApiResponseEvent;
+import com.chopping.net.BandwidthEstimator;
+import com.chopping.net.RequestMetrics;
 import com.chopping.utils.RestUtils;
 
 import java.io.IOException;
@@ -103,14 +105,20 @@ public class RestApiManager {
 	 * @param statusAfter
 	 * 		The status of after request.
 	 */
-	public <LD extends RestObject, SD extends RestObject> void execAsync( Call<SD> call, LD requestObject, int statusBefore, final int statusAfter
+	public <LD extends RestObject, SD extends RestObject> void execAsync( Call<SD> call, final LD requestObject, int statusBefore, final int statusAfter
 	) {
 		//MAKE A LOCAL STATUS.
 		requestObject.updateDB( statusBefore );
 		//CALL API.
+		final long startTime = System.currentTimeMillis();
 		call.enqueue( new  Callback<SD>() {
 			@Override
 			public void onResponse(Call<SD> call,  Response<SD> response  ) {
+				PendingFlights.done( requestObject );
+				addSample(
+						response,
+						startTime
+				);
 				if( response.isSuccessful() ) {
 					//-------------------------
 					//THE REQUEST IS SUCCESS.
@@ -124,6 +132,7 @@ public class RestApiManager {
 
 			@Override
 			public void onFailure( Call<SD> call, Throwable t ) {
+				PendingFlights.done( requestObject );
 				Log.d(
 						getClass().getSimpleName(),
 						"onFailure: " + t.toString()
@@ -204,7 +213,12 @@ public class RestApiManager {
 		requestObject.updateDB( statusBefore );
 		try {
 			//CALL API.
-			Response<SD> response = call.execute();
+			long         startTime = System.currentTimeMillis();
+			Response<SD> response  = call.execute();
+			addSample(
+					response,
+					startTime
+			);
 			if( response.isSuccessful() ) {
 				//-------------------------
 				//THE REQUEST IS SUCCESS.
@@ -219,9 +233,32 @@ public class RestApiManager {
 					"execSync: " + e.getMessage()
 
 			);
+		} finally {
+			PendingFlights.done( requestObject );
 		}
 	}
 
+	/**
+	 * Record the time that the caller has waited as total of {@link RequestMetrics}. The sample of {@link
+	 * BandwidthEstimator} is taken by {@link com.chopping.net.MetricsInterceptor} of the shared client, it counts the
+	 * bytes really read and the time until the body has been consumed.
+	 *
+	 * @param response
+	 * 		The {@link Response} of request.
+	 * @param startTime
+	 * 		Time when the request was fired.
+	 */
+	private static void addSample( Response<?> response, long startTime ) {
+		okhttp3.Response raw = response.raw();
+		RequestMetrics.getInstance()
+					  .record(
+							  RequestMetrics.endpointOf( raw.request()
+															.url() ),
+							  RequestMetrics.Phase.TOTAL,
+							  ( System.currentTimeMillis() - startTime ) * 1000
+					  );
+	}
+
 	public void executePending( ExecutePending exp, int statusBefore ) {
 		RestUtils.executePending( exp, statusBefore );
 	}
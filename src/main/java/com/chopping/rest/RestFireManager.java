@@ -1,8 +1,15 @@
 package com.chopping.rest;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import android.app.Application;
+import android.support.annotation.Nullable;
 import android.support.v4.util.ArrayMap;
-import android.support.v4.util.SimpleArrayMap;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -16,35 +23,36 @@ import com.firebase.client.Firebase;
 import com.firebase.client.Firebase.AuthResultHandler;
 import com.firebase.client.FirebaseError;
 import com.firebase.client.Query;
+import com.firebase.client.ValueEventListener;
 
 import de.greenrobot.event.EventBus;
+import io.realm.Realm;
 
 /**
  * Architecture for working with Firebase.
+ * <p/>
+ * Every type of {@link RestObject} streams in its own {@link Subscription} with its own listener and key index, all
+ * subscriptions share one {@link Firebase} connection, so that several collections can be synced in parallel. A type
+ * streams under base-url unless it has been given its own child location by {@link #subscribe(Class, String)}.
  *
  * @author Xinyue Zhao
  */
-public class RestFireManager implements AuthResultHandler, ChildEventListener {
+public class RestFireManager implements AuthResultHandler {
 	//Firebase.
 	private String                      mUrl;
 	private String                      mAuth;
 	private Firebase                    mFirebase;
-	private Query                       mQuery;
 	private int                         mLimit;
 	private String                      mOrderBy;
-	private Class<? extends RestObject> mRespType;
 	/**
 	 * The id of manger.
 	 */
 	private long                        mId;
 	/**
-	 * A flag to indicate whether listener of Firebase has been assigned or not.
-	 */
-	private boolean                     mAddedListener;
-	/**
-	 * Collection of Firebase keys associated with request-id.
+	 * All subscriptions, keyed by the type of data. Locked by itself, it is reached from threads by the
+	 * {@code *InBackground} methods.
 	 */
-	private SimpleArrayMap<String, String> mKeyList = new ArrayMap<>();
+	private final ArrayMap<Class<? extends RestObject>, Subscription> mSubscriptions = new ArrayMap<>();
 
 
 	/**
@@ -97,10 +105,6 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 		Firebase.setAndroidContext( app );
 		mFirebase = new Firebase( mUrl );
 		mFirebase.keepSynced( true );
-		mQuery = mFirebase.limitToLast( mLimit );
-		if( !TextUtils.isEmpty( mOrderBy ) ) {
-			mQuery = mQuery.orderByChild( mOrderBy );
-		}
 		mFirebase.authWithCustomToken(
 				mAuth,
 				this
@@ -118,8 +122,12 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	 * Called when do not need manager.
 	 */
 	public void onDestroy() {
-		mQuery.removeEventListener( this );
-		mAddedListener = false;
+		synchronized( mSubscriptions ) {
+			for( int i = 0, cnt = mSubscriptions.size(); i < cnt; i++ ) {
+				mSubscriptions.valueAt( i )
+							  .close();
+			}
+		}
 	}
 
 
@@ -143,6 +151,91 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	}
 
 
+	/**
+	 * Subscribe data of type {@code respType} under the child {@code path} of base-url.
+	 * <p/>
+	 * A type that is used without being subscribed streams under base-url itself. A subscription of {@code respType} with
+	 * another path is stopped and replaced.
+	 *
+	 * @param respType
+	 * 		Server data type {@code respType}.
+	 * @param path
+	 * 		Child path under base-url for the collection of {@code respType}, {@code null} for base-url itself.
+	 *
+	 * @return The {@link Subscription} of {@code respType}.
+	 *
+	 * @throws IllegalStateException
+	 * 		When the location of {@code path} has been subscribed explicitly by another type, their listeners would read
+	 * 		each other's children.
+	 */
+	public Subscription subscribe( Class<? extends RestObject> respType, @Nullable String path ) {
+		String location = TextUtils.isEmpty( path ) ? null : path;
+		Subscription old;
+		Subscription subscription;
+		synchronized( mSubscriptions ) {
+			old = mSubscriptions.get( respType );
+			for( int i = 0, cnt = mSubscriptions.size(); i < cnt; i++ ) {
+				Subscription other = mSubscriptions.valueAt( i );
+				if( other != old && other.mExplicit && TextUtils.equals(
+						other.mPath,
+						location
+				) ) {
+					throw new IllegalStateException( "Location " + ( location == null ? mUrl : location ) + " has been subscribed by " +
+															 other.mRespType.getName() );
+				}
+			}
+			if( old != null && TextUtils.equals(
+					old.mPath,
+					location
+			) ) {
+				old.mExplicit = true;
+				return old;
+			}
+			subscription = new Subscription(
+					respType,
+					location
+			);
+			subscription.mExplicit = true;
+			mSubscriptions.put(
+					respType,
+					subscription
+			);
+		}
+		if( old != null ) {
+			Log.w(
+					"Fire Mgr",
+					"subscribe: " + respType.getSimpleName() + " moves from " + old.mPath + " to " + location
+			);
+			boolean started = old.stop();
+			old.close();
+			if( started ) {
+				subscription.start();
+			}
+		}
+		return subscription;
+	}
+
+	/**
+	 * Subscription of {@code respType}, it streams under base-url when it hasn't been subscribed.
+	 */
+	private Subscription getSubscription( Class<? extends RestObject> respType ) {
+		synchronized( mSubscriptions ) {
+			Subscription subscription = mSubscriptions.get( respType );
+			if( subscription == null ) {
+				subscription = new Subscription(
+						respType,
+						null
+				);
+				mSubscriptions.put(
+						respType,
+						subscription
+				);
+			}
+			return subscription;
+		}
+	}
+
+
 	/**
 	 * Save data on Firebase.
 	 *
@@ -150,10 +243,7 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	 * 		{@link RestObject} to save on Firebase.
 	 */
 	public void save( RestObject newData ) {
-		if( !mAddedListener ) {
-			mQuery.addChildEventListener( this );
-			mAddedListener = true;
-		}
+		getSubscription( newData.getClass() ).start();
 		saveInBackground( newData );
 	}
 
@@ -164,11 +254,12 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	 * 		{@link RestObject} to save on Firebase.
 	 */
 	public void saveInBackground( RestObject newData ) {
-		mRespType = newData.getClass();
 		newData.updateDB( RestObject.NOT_SYNCED );
-		mFirebase.child( newData.getReqId() )
-				 .setValue( newData );
-		mFirebase.push();
+		getSubscription( newData.getClass() ).mRef.child( newData.getReqId() )
+												 .setValue(
+														 newData,
+														 new FlightListener( newData )
+												 );
 	}
 
 
@@ -179,10 +270,7 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	 * 		{@link RestObject} to delete on Firebase.
 	 */
 	public void delete( RestObject data ) {
-		if( !mAddedListener ) {
-			mQuery.addChildEventListener( this );
-			mAddedListener = true;
-		}
+		getSubscription( data.getClass() ).start();
 		deleteInBackground( data );
 	}
 
@@ -193,10 +281,9 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	 * 		{@link RestObject} to delete on Firebase.
 	 */
 	public void deleteInBackground( RestObject data ) {
-		mRespType = data.getClass();
 		data.updateDB( RestObject.DELETE );
-		mFirebase.child( data.getReqId() )
-				 .removeValue();
+		getSubscription( data.getClass() ).mRef.child( data.getReqId() )
+											  .removeValue( new FlightListener( data ) );
 	}
 
 
@@ -207,10 +294,7 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	 * 		{@link RestObject} to change on Firebase.
 	 */
 	public void update( RestObject data ) {
-		if( !mAddedListener ) {
-			mQuery.addChildEventListener( this );
-			mAddedListener = true;
-		}
+		getSubscription( data.getClass() ).start();
 		updateInBackground( data );
 	}
 
@@ -221,10 +305,12 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	 * 		{@link RestObject} to change on Firebase.
 	 */
 	public void updateInBackground( RestObject data ) {
-		mRespType = data.getClass();
 		data.updateDB( RestObject.UPDATE );
-		mFirebase.child( data.getReqId() )
-				 .setValue( data );
+		getSubscription( data.getClass() ).mRef.child( data.getReqId() )
+											  .setValue(
+													  data,
+													  new FlightListener( data )
+											  );
 	}
 
 
@@ -235,35 +321,34 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 	 * 		Server data type {@code respType}.
 	 */
 	public void selectAll( Class<? extends RestObject> respType ) {
-		mRespType = respType;
-		if( mAddedListener ) {
-			mQuery.removeEventListener( this );
-			mAddedListener = false;
-		}
-		mQuery.addChildEventListener( this );
-		mAddedListener = true;
+		Subscription subscription = getSubscription( respType );
+		subscription.stop();
+		subscription.mQuery = subscription.createQuery();
+		subscription.start();
 	}
 
 
 	/**
-	 * Get all data from {@code fromObject}.
+	 * Get a page of data before {@code fromObject}(exclusive), ie. for infinite scroll over long history. Pages are in the
+	 * order of the live query, by child {@code orderBy} if it has been given, otherwise by key.
+	 * <p/>
+	 * A page is loaded once into local Realm, a page that has been loaded(or prefetched) is served by Realm without
+	 * touching Firebase; its items keep receiving changes and removals until the manager is destroyed. After a page the
+	 * next one will be prefetched in background.
 	 *
 	 * @param fromObject
 	 * 		The object to start selection.
 	 */
 	public void selectFrom( RestObject fromObject ) {
-		mRespType = fromObject.getClass();
-		if( mAddedListener ) {
-			mQuery.removeEventListener( this );
-			mAddedListener = false;
-		}
-		String key = mKeyList.get( fromObject.getReqId() );
-		mQuery = mFirebase.endAt(
-				null,
-				key
-		).limitToLast( mLimit );
-		mQuery.addChildEventListener( this );
-		mAddedListener = true;
+		getSubscription( fromObject.getClass() ).selectFrom( fromObject.getReqId() );
+	}
+
+
+	/**
+	 * Create a {@link Batch} to write many changes at once.
+	 */
+	public Batch newBatch() {
+		return new Batch();
 	}
 
 
@@ -280,80 +365,667 @@ public class RestFireManager implements AuthResultHandler, ChildEventListener {
 		);
 	}
 
-	//[ChildEventListener]
-	@Override
-	public void onChildAdded( DataSnapshot dataSnapshot, String s ) {
-		RestObject serverData = dataSnapshot.getValue( mRespType );
-		serverData.updateDB( RestObject.SYNCED );
-		if( !TextUtils.isEmpty( dataSnapshot.getKey() ) ) {
-			mKeyList.put(
-					serverData.getReqId(),
-					dataSnapshot.getKey()
+
+	/**
+	 * Give a replayed item free when Firebase has answered its write, see {@link PendingFlights}.
+	 */
+	private static final class FlightListener implements Firebase.CompletionListener {
+		private final RestObject mData;
+
+		private FlightListener( RestObject data ) {
+			mData = data;
+		}
+
+		@Override
+		public void onComplete( FirebaseError firebaseError, Firebase firebase ) {
+			PendingFlights.done( mData );
+		}
+	}
+
+
+	/**
+	 * Value of child {@link #mOrderBy} of a child and count of listeners that hold the child.
+	 */
+	private static final class OrderValue {
+		private Object mValue;
+		private int    mHolders;
+	}
+
+
+	/**
+	 * Collect changes of many {@link RestObject}s and write them as one atomic multi-location update on Firebase. Local
+	 * status of all changes are written in one Realm transaction.
+	 */
+	public final class Batch {
+		private final Map<String, Object> mUpdates  = new HashMap<>();
+		private final List<RestObject>    mObjects  = new ArrayList<>();
+		private final List<Integer>       mStatuses = new ArrayList<>();
+
+		private Batch() {
+		}
+
+		/**
+		 * Save {@code newData} with the batch.
+		 */
+		public Batch save( RestObject newData ) {
+			return add(
+					newData,
+					newData,
+					RestObject.NOT_SYNCED
 			);
-			Log.i(
-					"Fire Mgr",
-					"onChildAdded: <-" + dataSnapshot.getKey()
+		}
+
+		/**
+		 * Change {@code data} with the batch.
+		 */
+		public Batch update( RestObject data ) {
+			return add(
+					data,
+					data,
+					RestObject.UPDATE
 			);
-			Log.i(
-					"Fire Mgr",
-					"onChildAdded: " + dataSnapshot.getKey()
+		}
+
+		/**
+		 * Delete {@code data} with the batch.
+		 */
+		public Batch delete( RestObject data ) {
+			return add(
+					data,
+					null,
+					RestObject.DELETE
 			);
 		}
-	}
 
-	@Override
-	public void onChildRemoved( DataSnapshot dataSnapshot ) {
-		RestObject serverData = dataSnapshot.getValue( mRespType );
-		String     reqId      = serverData.getReqId();
-		String      key = dataSnapshot.getKey();
-		serverData.updateDB( RestObject.DELETE_SYNCED );
-		if( !TextUtils.isEmpty( dataSnapshot.getKey() ) ) {
-			mKeyList.remove( reqId );
-			Log.i(
-					"Fire Mgr",
-					"onChildRemoved: ->" + dataSnapshot.getKey()
+		private Batch add( RestObject data, @Nullable Object value, int status ) {
+			Subscription subscription = getSubscription( data.getClass() );
+			String       path         = subscription.mPath == null ? data.getReqId() : subscription.mPath + "/" + data.getReqId();
+			mUpdates.put(
+					path,
+					value
 			);
-			Log.i(
-					"Fire Mgr",
-					"onChildRemoved: " + key
+			mObjects.add( data );
+			mStatuses.add( status );
+			return this;
+		}
+
+		/**
+		 * @return Count of changes in batch.
+		 */
+		public int size() {
+			return mObjects.size();
+		}
+
+		/**
+		 * Write local status of all changes in one transaction and send them as one update to Firebase. Listeners of
+		 * involved types are started, so that the synced status comes back.
+		 */
+		public void commit() {
+			if( mObjects.isEmpty() ) {
+				return;
+			}
+			Realm db = RealmSession.acquire();
+			db.beginTransaction();
+			try {
+				for( int i = 0, cnt = mObjects.size(); i < cnt; i++ ) {
+					mObjects.get( i )
+							.writeDB(
+									db,
+									mStatuses.get( i )
+							);
+				}
+				db.commitTransaction();
+			} catch( RuntimeException e ) {
+				db.cancelTransaction();
+				throw e;
+			} finally {
+				RealmSession.release( db );
+			}
+			for( RestObject data : mObjects ) {
+				getSubscription( data.getClass() ).start();
+			}
+			final List<RestObject> objects = new ArrayList<>( mObjects );
+			mFirebase.updateChildren(
+					new HashMap<String, Object>( mUpdates ),
+					new Firebase.CompletionListener() {
+						@Override
+						public void onComplete( FirebaseError firebaseError, Firebase firebase ) {
+							for( RestObject data : objects ) {
+								PendingFlights.done( data );
+							}
+						}
+					}
 			);
+			mUpdates.clear();
+			mObjects.clear();
+			mStatuses.clear();
 		}
 	}
 
-	@Override
-	public void onChildChanged( DataSnapshot dataSnapshot, String s ) {
-		RestObject serverData = dataSnapshot.getValue( mRespType );
-		serverData.updateDB( RestObject.UPDATE_SYNCED );
-		if( !TextUtils.isEmpty( dataSnapshot.getKey() ) ) {
-			mKeyList.put(
-					serverData.getReqId(),
+
+	/**
+	 * Stream of one type of data, it has its own query, listener and index of keys.
+	 */
+	public final class Subscription implements ChildEventListener {
+		private final Class<? extends RestObject> mRespType;
+		/**
+		 * Child path of the collection under base-url, {@code null} for base-url itself.
+		 */
+		private final String                      mPath;
+		/**
+		 * Location of the collection.
+		 */
+		private final Firebase                    mRef;
+		/**
+		 * {@code true} if the location has been given by {@link #subscribe(Class, String)}, only such locations are
+		 * exclusive.
+		 */
+		private       boolean                     mExplicit;
+		private       Query                       mQuery;
+		/**
+		 * A flag to indicate whether listener of Firebase has been assigned or not.
+		 */
+		private       boolean                     mAddedListener;
+		/**
+		 * Collection of Firebase keys associated with request-id.
+		 */
+		private final Map<String, String> mKeyList = new HashMap<>();
+		/**
+		 * Write children into Realm and {@link #mKeyList}.
+		 */
+		private final FireChildSink       mSink    = new FireChildSink( mKeyList );
+		/**
+		 * Keys of cursors whose pages have been loaded into Realm, against the oldest key of the page which is the cursor
+		 * of next page. The paging state is locked by {@link #mSubscriptions}.
+		 */
+		private final Map<String, String> mPages = new HashMap<>();
+		/**
+		 * Keys of cursors whose pages are loading.
+		 */
+		private final Set<String> mLoadingPages = new HashSet<>();
+		/**
+		 * Values of child {@link #mOrderBy} of children held by the live query or a loaded page, keyed by Firebase key,
+		 * they are the cursors of pages. A value is dropped when no listener holds its child anymore.
+		 */
+		private final Map<String, OrderValue> mOrderValues = new HashMap<>();
+		/**
+		 * Keys of children held by the live query.
+		 */
+		private final Set<String> mLiveKeys = new HashSet<>();
+		/**
+		 * Live listeners of loaded pages.
+		 */
+		private final List<PageListener> mPageListeners = new ArrayList<>();
+		/**
+		 * {@code true} if next page is prefetched in background.
+		 */
+		private       boolean             mPrefetch = true;
+
+		private Subscription( Class<? extends RestObject> respType, @Nullable String path ) {
+			mRespType = respType;
+			mPath = TextUtils.isEmpty( path ) ? null : path;
+			mRef = mPath == null ? mFirebase : mFirebase.child( mPath );
+			mQuery = createQuery();
+		}
+
+		private Query createQuery() {
+			Query query = mRef.limitToLast( mLimit );
+			if( !TextUtils.isEmpty( mOrderBy ) ) {
+				query = query.orderByChild( mOrderBy );
+			}
+			return query;
+		}
+
+		/**
+		 * Start listening, nothing happens if it has been started.
+		 */
+		public void start() {
+			if( !mAddedListener ) {
+				mQuery.addChildEventListener( this );
+				mAddedListener = true;
+			}
+		}
+
+		/**
+		 * Stop listening.
+		 *
+		 * @return {@code true} if it had been started.
+		 */
+		public boolean stop() {
+			if( mAddedListener ) {
+				mQuery.removeEventListener( this );
+				mAddedListener = false;
+				dropOrderValues( mLiveKeys );
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Stop listening and stop the live listeners of all loaded pages.
+		 */
+		private void close() {
+			stop();
+			synchronized( mSubscriptions ) {
+				for( PageListener listener : mPageListeners ) {
+					listener.mQuery.removeEventListener( listener );
+					dropOrderValues( listener.mKeys );
+				}
+				mPageListeners.clear();
+				mPages.clear();
+				mLoadingPages.clear();
+			}
+		}
+
+		public Class<? extends RestObject> getRespType() {
+			return mRespType;
+		}
+
+		/**
+		 * Set {@code true}(default) if the next page should be prefetched in background after a page.
+		 */
+		public void setPrefetch( boolean prefetch ) {
+			mPrefetch = prefetch;
+		}
+
+		/**
+		 * Select page before the object of {@code reqId}(exclusive).
+		 */
+		private void selectFrom( String reqId ) {
+			String key = mKeyList.get( reqId );
+			if( TextUtils.isEmpty( key ) ) {
+				Log.w(
+						"Fire Mgr",
+						"selectFrom: unknown cursor " + reqId
+				);
+				return;
+			}
+			String nextCursor;
+			synchronized( mSubscriptions ) {
+				nextCursor = mPages.get( key );
+			}
+			if( nextCursor != null ) {
+				//The page is in Realm already.
+				prefetch( nextCursor );
+				return;
+			}
+			loadPage(
+					key,
+					true
+			);
+		}
+
+		private void prefetch( String cursor ) {
+			if( !mPrefetch || TextUtils.isEmpty( cursor ) ) {
+				return;
+			}
+			synchronized( mSubscriptions ) {
+				if( mPages.containsKey( cursor ) ) {
+					return;
+				}
+			}
+			loadPage(
+					cursor,
+					false
+			);
+		}
+
+		/**
+		 * Load a page ending before key {@code cursor} once into Realm, the page keeps listening to its children.
+		 *
+		 * @param cursor
+		 * 		Key of the item after the page, it is the oldest item of previous page.
+		 * @param prefetchNext
+		 * 		{@code true} if next page should be prefetched after this one.
+		 */
+		private void loadPage( final String cursor, final boolean prefetchNext ) {
+			boolean known;
+			Object  value;
+			synchronized( mSubscriptions ) {
+				if( !mLoadingPages.add( cursor ) ) {
+					return;
+				}
+				OrderValue orderValue = mOrderValues.get( cursor );
+				known = TextUtils.isEmpty( mOrderBy ) || orderValue != null;
+				value = orderValue == null ? null : orderValue.mValue;
+			}
+			if( known ) {
+				queryPage(
+						cursor,
+						value,
+						prefetchNext
+				);
+				return;
+			}
+			//The cursor isn't held by any listener anymore, read its value first.
+			mRef.child( cursor )
+				.child( mOrderBy )
+				.addListenerForSingleValueEvent( new ValueEventListener() {
+					@Override
+					public void onDataChange( DataSnapshot dataSnapshot ) {
+						queryPage(
+								cursor,
+								dataSnapshot.getValue(),
+								prefetchNext
+						);
+					}
+
+					@Override
+					public void onCancelled( FirebaseError firebaseError ) {
+						synchronized( mSubscriptions ) {
+							mLoadingPages.remove( cursor );
+						}
+						Log.d(
+								"Fire Mgr",
+								"loadPage: " + firebaseError.toString()
+						);
+					}
+				} );
+		}
+
+		private void queryPage( final String cursor, Object value, final boolean prefetchNext ) {
+			//endAt() is inclusive, one more for the cursor which is skipped.
+			Query query = pageQuery(
+					cursor,
+					value
+			).limitToLast( mLimit + 1 );
+			PageListener listener = new PageListener(
+					query,
+					cursor
+			);
+			synchronized( mSubscriptions ) {
+				if( !mLoadingPages.contains( cursor ) ) {
+					//Closed meanwhile.
+					return;
+				}
+				mPageListeners.add( listener );
+			}
+			query.addChildEventListener( listener );
+			//Value-events come after the child-events of the same data.
+			query.addListenerForSingleValueEvent( new ValueEventListener() {
+				@Override
+				public void onDataChange( DataSnapshot dataSnapshot ) {
+					String oldest = null;
+					for( DataSnapshot child : dataSnapshot.getChildren() ) {
+						if( !TextUtils.equals(
+								child.getKey(),
+								cursor
+						) ) {
+							oldest = child.getKey();
+							break;
+						}
+					}
+					//The oldest one is the cursor of next page, no more page when there's nothing before the cursor.
+					String nextCursor = oldest == null ? "" : oldest;
+					synchronized( mSubscriptions ) {
+						if( !mLoadingPages.remove( cursor ) ) {
+							return;
+						}
+						mPages.put(
+								cursor,
+								nextCursor
+						);
+					}
+					if( prefetchNext ) {
+						prefetch( nextCursor );
+					}
+				}
+
+				@Override
+				public void onCancelled( FirebaseError firebaseError ) {
+					synchronized( mSubscriptions ) {
+						mLoadingPages.remove( cursor );
+					}
+					Log.d(
+							"Fire Mgr",
+							"loadPage: " + firebaseError.toString()
+					);
+				}
+			} );
+		}
+
+		/**
+		 * Query of children up to {@code cursor}(inclusive) in the order of live query.
+		 *
+		 * @param value
+		 * 		Value of child {@link #mOrderBy} of {@code cursor}.
+		 */
+		private Query pageQuery( String cursor, Object value ) {
+			if( TextUtils.isEmpty( mOrderBy ) ) {
+				return mRef.orderByKey()
+						   .endAt( cursor );
+			}
+			Query query = mRef.orderByChild( mOrderBy );
+			if( value instanceof Number ) {
+				return query.endAt(
+						( (Number) value ).doubleValue(),
+						cursor
+				);
+			}
+			if( value instanceof Boolean ) {
+				return query.endAt(
+						(Boolean) value,
+						cursor
+				);
+			}
+			return query.endAt(
+					value == null ? null : value.toString(),
+					cursor
+			);
+		}
+
+		/**
+		 * Remember value of child {@link #mOrderBy} of a child held by a listener, it might become a cursor.
+		 *
+		 * @param holder
+		 * 		Keys held by the listener.
+		 */
+		private void keepOrderValue( Set<String> holder, DataSnapshot dataSnapshot ) {
+			if( TextUtils.isEmpty( mOrderBy ) ) {
+				return;
+			}
+			String key = dataSnapshot.getKey();
+			synchronized( mSubscriptions ) {
+				OrderValue orderValue = mOrderValues.get( key );
+				if( orderValue == null ) {
+					orderValue = new OrderValue();
+					mOrderValues.put(
+							key,
+							orderValue
+					);
+				}
+				if( holder.add( key ) ) {
+					orderValue.mHolders++;
+				}
+				orderValue.mValue = dataSnapshot.child( mOrderBy )
+												.getValue();
+			}
+		}
+
+		/**
+		 * A listener doesn't hold child of {@code key} anymore.
+		 */
+		private void dropOrderValue( Set<String> holder, String key ) {
+			synchronized( mSubscriptions ) {
+				if( holder.remove( key ) ) {
+					release( key );
+				}
+			}
+		}
+
+		/**
+		 * A listener doesn't hold any child anymore.
+		 */
+		private void dropOrderValues( Set<String> holder ) {
+			synchronized( mSubscriptions ) {
+				for( String key : holder ) {
+					release( key );
+				}
+				holder.clear();
+			}
+		}
+
+		private void release( String key ) {
+			OrderValue orderValue = mOrderValues.get( key );
+			if( orderValue != null && --orderValue.mHolders <= 0 ) {
+				mOrderValues.remove( key );
+			}
+		}
+
+		/**
+		 * Live listener of a loaded page.
+		 */
+		private final class PageListener implements ChildEventListener {
+			private final Query  mQuery;
+			/**
+			 * Cursor of page, it belongs to previous page.
+			 */
+			private final String mCursor;
+			/**
+			 * Keys of children held by the page.
+			 */
+			private final Set<String> mKeys = new HashSet<>();
+
+			private PageListener( Query query, String cursor ) {
+				mQuery = query;
+				mCursor = cursor;
+			}
+
+			@Override
+			public void onChildAdded( DataSnapshot dataSnapshot, String s ) {
+				if( !TextUtils.equals(
+						dataSnapshot.getKey(),
+						mCursor
+				) ) {
+					keepOrderValue(
+							mKeys,
+							dataSnapshot
+					);
+					mSink.added(
+							dataSnapshot.getKey(),
+							dataSnapshot.getValue( mRespType )
+					);
+				}
+			}
+
+			@Override
+			public void onChildChanged( DataSnapshot dataSnapshot, String s ) {
+				if( !TextUtils.equals(
+						dataSnapshot.getKey(),
+						mCursor
+				) ) {
+					keepOrderValue(
+							mKeys,
+							dataSnapshot
+					);
+					mSink.changed(
+							dataSnapshot.getKey(),
+							dataSnapshot.getValue( mRespType )
+					);
+				}
+			}
+
+			@Override
+			public void onChildRemoved( final DataSnapshot dataSnapshot ) {
+				if( TextUtils.equals(
+						dataSnapshot.getKey(),
+						mCursor
+				) ) {
+					return;
+				}
+				dropOrderValue(
+						mKeys,
+						dataSnapshot.getKey()
+				);
+				//A child also leaves a limited page when an older one has been inserted, remove it only if it's gone.
+				mRef.child( dataSnapshot.getKey() )
+					.addListenerForSingleValueEvent( new ValueEventListener() {
+						@Override
+						public void onDataChange( DataSnapshot current ) {
+							if( !current.exists() ) {
+								mSink.removed(
+										dataSnapshot.getKey(),
+										dataSnapshot.getValue( mRespType )
+								);
+							}
+						}
+
+						@Override
+						public void onCancelled( FirebaseError firebaseError ) {
+							Log.d(
+									"Fire Mgr",
+									"onChildRemoved: " + firebaseError.toString()
+							);
+						}
+					} );
+			}
+
+			@Override
+			public void onChildMoved( DataSnapshot dataSnapshot, String s ) {
+				//Order doesn't matter for Realm.
+			}
+
+			@Override
+			public void onCancelled( FirebaseError firebaseError ) {
+				Log.d(
+						"Fire Mgr",
+						"page: " + firebaseError.toString()
+				);
+			}
+		}
+
+		//[ChildEventListener]
+		@Override
+		public void onChildAdded( DataSnapshot dataSnapshot, String s ) {
+			keepOrderValue(
+					mLiveKeys,
+					dataSnapshot
+			);
+			mSink.added(
+					dataSnapshot.getKey(),
+					dataSnapshot.getValue( mRespType )
+			);
+		}
+
+		@Override
+		public void onChildRemoved( DataSnapshot dataSnapshot ) {
+			dropOrderValue(
+					mLiveKeys,
 					dataSnapshot.getKey()
 			);
-			Log.i(
-					"Fire Mgr",
-					"onChildChanged: #" + dataSnapshot.getKey()
+			mSink.removed(
+					dataSnapshot.getKey(),
+					dataSnapshot.getValue( mRespType )
 			);
-			Log.i(
-					"Fire Mgr",
-					"onChildChanged: " + dataSnapshot.getKey()
+		}
+
+		@Override
+		public void onChildChanged( DataSnapshot dataSnapshot, String s ) {
+			keepOrderValue(
+					mLiveKeys,
+					dataSnapshot
+			);
+			mSink.changed(
+					dataSnapshot.getKey(),
+					dataSnapshot.getValue( mRespType )
 			);
 		}
-	}
 
 
-	@Override
-	public void onChildMoved( DataSnapshot dataSnapshot, String s ) {
-		Log.d(
-				getClass().getSimpleName(),
-				"onChildMoved: " + dataSnapshot.getValue()
-		);
-	}
+		@Override
+		public void onChildMoved( DataSnapshot dataSnapshot, String s ) {
+			Log.d(
+					getClass().getSimpleName(),
+					"onChildMoved: " + dataSnapshot.getValue()
+			);
+		}
 
-	@Override
-	public void onCancelled( FirebaseError firebaseError ) {
-		Log.d(
-				getClass().getSimpleName(),
-				"onCancelled: " + firebaseError.toString()
-		);
+		@Override
+		public void onCancelled( FirebaseError firebaseError ) {
+			Log.d(
+					getClass().getSimpleName(),
+					"onCancelled: " + firebaseError.toString()
+			);
+		}
 	}
 }
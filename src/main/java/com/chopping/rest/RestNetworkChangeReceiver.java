@@ -3,19 +3,73 @@ package com.chopping.rest;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
 
 import com.chopping.bus.UpdateNetworkStatusEvent;
-import com.chopping.utils.RestUtils;
+import com.chopping.net.ConnectivityMonitor;
+import com.chopping.net.ConnectivityState;
 
 import de.greenrobot.event.EventBus;
 
+/**
+ * Post {@link UpdateNetworkStatusEvent} when network has been changed. A flaky network fires many broadcasts within
+ * seconds, so the event will be posted only after network has been stable for {@link #setStableInterval(long)} and
+ * only when the connection-status or the type of network, ie. a handover between WiFi and mobile, differs from the last
+ * posted one.
+ */
 public class RestNetworkChangeReceiver extends BroadcastReceiver {
+	/**
+	 * Default time in milliseconds that network must be stable before an event is posted.
+	 */
+	public static final long DEFAULT_STABLE_INTERVAL = 2000;
+
+	private static final Handler           sHandler        = new Handler( Looper.getMainLooper() );
+	private static       long              sStableInterval = DEFAULT_STABLE_INTERVAL;
+	/**
+	 * The last posted state, {@code null} if nothing has been posted.
+	 */
+	private static       ConnectivityState sLastState;
+	private static       Runnable          sPost;
+
 	public RestNetworkChangeReceiver() {
 	}
 
+	/**
+	 * Set time in milliseconds that network must be stable before an {@link UpdateNetworkStatusEvent} is posted.
+	 */
+	public static void setStableInterval( long stableInterval ) {
+		sStableInterval = stableInterval;
+	}
+
 	@Override
 	public void onReceive( Context context, Intent intent ) {
-		EventBus.getDefault()
-				.post( new UpdateNetworkStatusEvent( RestUtils.isNetworkAvailable( context ) ) );
+		final Context app = context.getApplicationContext();
+		synchronized( RestNetworkChangeReceiver.class ) {
+			if( sPost != null ) {
+				sHandler.removeCallbacks( sPost );
+			}
+			sPost = new Runnable() {
+				@Override
+				public void run() {
+					ConnectivityState state = ConnectivityMonitor.getInstance( app )
+																 .refresh();
+					synchronized( RestNetworkChangeReceiver.class ) {
+						sPost = null;
+						if( sLastState != null && sLastState.isOnline() == state.isOnline() &&
+								sLastState.getType() == state.getType() ) {
+							return;
+						}
+						sLastState = state;
+					}
+					EventBus.getDefault()
+							.post( new UpdateNetworkStatusEvent( state.isOnline() ) );
+				}
+			};
+			sHandler.postDelayed(
+					sPost,
+					sStableInterval
+			);
+		}
 	}
 }
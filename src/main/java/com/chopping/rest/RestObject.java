@@ -24,17 +24,37 @@ public abstract class RestObject implements Serializable {
 	public abstract long getReqTime();
 
 
-	//Update database when this object changed.
+	//Update database when this object changed, it uses the instance of RealmSession when a sync is running.
 	public void updateDB( int status ) {
-		Realm db = Realm.getDefaultInstance();
+		Realm db = RealmSession.acquire();
 		db.beginTransaction();
+		try {
+			if( writeDB(
+					db,
+					status
+			) ) {
+				db.commitTransaction();
+			} else {
+				db.cancelTransaction();
+			}
+		} finally {
+			//A failed write must not leave the shared instance of session in transaction.
+			if( db.isInTransaction() ) {
+				db.cancelTransaction();
+			}
+			RealmSession.release( db );
+		}
+	}
+
+	//Write this object into database inside a transaction that the caller has begun, ie. for a batch.
+	//Return false if there's nothing to write.
+	public boolean writeDB( Realm db, int status ) {
 		RealmObject[] instances = newInstances(
 				db,
 				status
 		);
 		if(instances == null) {
-			db.cancelTransaction();
-			return;
+			return false;
 		}
 		for( RealmObject instance : instances ) {
 			switch( status ) {
@@ -46,10 +66,7 @@ public abstract class RestObject implements Serializable {
 					break;
 			}
 		}
-		db.commitTransaction();
-		if( !db.isClosed() ) {
-			db.close();
-		}
+		return true;
 	}
 
 	//Create database items that will be updated into database.
@@ -0,0 +1,143 @@
+package com.chopping.utils;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.support.v4.util.LruCache;
+import android.text.format.DateUtils;
+
+/**
+ * Cache of formatted dates for list-rows that are bound again and again, ie. in {@link
+ * com.chopping.activities.RestfulActivity}.
+ * <p/>
+ * A date is cached by its timestamp truncated to the precision that the flags show(minute with time, day in local
+ * time-zone without time) and the flags. A relative time is cached by its minute until the current minute changes.
+ * <p/>
+ * The cache is dropped when locale, time-zone or time-format of device changes.
+ *
+ * @author Xinyue Zhao
+ */
+public final class DateFormatCache {
+	private static final int MAX_ENTRIES = 256;
+	/**
+	 * Bits of flags in a key, all {@code DateUtils.FORMAT_*} fit in.
+	 */
+	private static final int FLAG_BITS = 20;
+
+	private static final LruCache<Long, String> sDates = new LruCache<>(MAX_ENTRIES);
+	private static final LruCache<Long, CharSequence> sRelatives = new LruCache<>(MAX_ENTRIES);
+	/**
+	 * Minute of "now" that {@link #sRelatives} has been computed for.
+	 */
+	private static long sRelativeMinute = -1;
+	private static Locale sLocale;
+	private static TimeZone sTimeZone;
+	private static boolean sReceiverRegistered;
+
+	private DateFormatCache() {
+	}
+
+	/**
+	 * Cached {@link DateUtils#formatDateTime(Context, long, int)}.
+	 *
+	 * @param cxt
+	 * 		{@link android.content.Context}.
+	 * @param millis
+	 * 		Timestamp in milliseconds.
+	 * @param flags
+	 * 		{@code DateUtils.FORMAT_*}.
+	 *
+	 * @return Formatted date.
+	 */
+	public static synchronized String formatDateTime(Context cxt, long millis, int flags) {
+		validate(cxt);
+		long bucket;
+		if ((flags & DateUtils.FORMAT_SHOW_TIME) != 0) {
+			bucket = floorDiv(millis, DateUtils.MINUTE_IN_MILLIS);
+		} else {
+			bucket = floorDiv(millis + sTimeZone.getOffset(millis), DateUtils.DAY_IN_MILLIS);
+		}
+		Long key = (bucket << FLAG_BITS) | (flags & ((1 << FLAG_BITS) - 1));
+		String formatted = sDates.get(key);
+		if (formatted == null) {
+			formatted = DateUtils.formatDateTime(cxt, millis, flags);
+			sDates.put(key, formatted);
+		}
+		return formatted;
+	}
+
+	/**
+	 * Cached {@link DateUtils#getRelativeTimeSpanString(long, long, long)} against now with minute resolution.
+	 *
+	 * @param cxt
+	 * 		{@link android.content.Context}.
+	 * @param millis
+	 * 		Timestamp in milliseconds.
+	 *
+	 * @return Relative time, ie. "10 minutes ago".
+	 */
+	public static synchronized CharSequence getRelativeTime(Context cxt, long millis) {
+		validate(cxt);
+		long now = System.currentTimeMillis();
+		long nowMinute = floorDiv(now, DateUtils.MINUTE_IN_MILLIS);
+		if (nowMinute != sRelativeMinute) {
+			sRelatives.evictAll();
+			sRelativeMinute = nowMinute;
+		}
+		Long key = floorDiv(millis, DateUtils.MINUTE_IN_MILLIS);
+		CharSequence relative = sRelatives.get(key);
+		if (relative == null) {
+			relative = DateUtils.getRelativeTimeSpanString(millis, now, DateUtils.MINUTE_IN_MILLIS);
+			sRelatives.put(key, relative);
+		}
+		return relative;
+	}
+
+	/**
+	 * Drop all cached strings.
+	 */
+	public static synchronized void invalidate() {
+		sDates.evictAll();
+		sRelatives.evictAll();
+		sRelativeMinute = -1;
+		sLocale = null;
+		sTimeZone = null;
+	}
+
+	/**
+	 * Drop cache when locale has changed, broadcasts of time-zone and time-format drop it by {@link #invalidate()}.
+	 */
+	private static void validate(Context cxt) {
+		if (!sReceiverRegistered) {
+			IntentFilter filter = new IntentFilter();
+			filter.addAction(Intent.ACTION_LOCALE_CHANGED);
+			filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+			filter.addAction(Intent.ACTION_TIME_CHANGED);
+			cxt.getApplicationContext().registerReceiver(new BroadcastReceiver() {
+				@Override
+				public void onReceive(Context context, Intent intent) {
+					invalidate();
+				}
+			}, filter);
+			sReceiverRegistered = true;
+		}
+		Locale locale = Locale.getDefault();
+		if (locale != sLocale) {
+			invalidate();
+			sLocale = locale;
+		}
+		if (sTimeZone == null) {
+			//TimeZone#getDefault() clones, only call it after invalidation.
+			sTimeZone = TimeZone.getDefault();
+		}
+	}
+
+	private static long floorDiv(long x, long y) {
+		long q = x / y;
+		return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+	}
+}
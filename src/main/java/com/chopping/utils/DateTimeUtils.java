@@ -9,7 +9,6 @@ import static android.text.format.DateUtils.FORMAT_ABBREV_MONTH;
 import static android.text.format.DateUtils.FORMAT_SHOW_DATE;
 import static android.text.format.DateUtils.FORMAT_SHOW_TIME;
 import static android.text.format.DateUtils.FORMAT_SHOW_YEAR;
-import static android.text.format.DateUtils.formatDateTime;
 
 /**
  * Utils for some methods that operate on time, date, calendar etc.
@@ -51,15 +50,31 @@ public final class DateTimeUtils {
 	public static Calendar transformTime(Calendar date, TimeZone oldZone, TimeZone newZone) {
 		Calendar finalDate = Calendar.getInstance();
 		if (date != null) {
-			long timeOffset = oldZone.getOffset(date.getTimeInMillis()) - newZone.getOffset(date.getTimeInMillis());
-			finalDate.setTimeInMillis(date.getTimeInMillis() - timeOffset);
+			finalDate.setTimeInMillis(transformTime(date.getTimeInMillis(), oldZone, newZone));
 		}
 		return finalDate;
 
 	}
 
 	/**
-	 * Convert a timestamps to a readable date in string.
+	 * Convert the epoch-millis <code>millis</code> with <code>oldZone</code> to <code>newZone</code>, same as {@link
+	 * #transformTime(Calendar, TimeZone, TimeZone)} without allocation.
+	 *
+	 * @param millis
+	 * 		Time in milliseconds which needs new time-zone.
+	 * @param oldZone
+	 * 		Old time-zone that will be compared with new one.
+	 * @param newZone
+	 * 		New time-zone.
+	 *
+	 * @return Time in milliseconds with <code>newZone</code>.
+	 */
+	public static long transformTime(long millis, TimeZone oldZone, TimeZone newZone) {
+		return millis - (oldZone.getOffset(millis) - newZone.getOffset(millis));
+	}
+
+	/**
+	 * Convert a timestamps to a readable date in string, it is cached by {@link DateFormatCache}.
 	 *
 	 * @param cxt
 	 * 		{@link android.content.Context}.
@@ -69,13 +84,13 @@ public final class DateTimeUtils {
 	 * @return A date string format.
 	 */
 	public static String timeConvert1(Context cxt, long timestamps) {
-		return formatDateTime(cxt, timestamps, FORMAT_SHOW_YEAR | FORMAT_SHOW_DATE |
+		return DateFormatCache.formatDateTime(cxt, timestamps, FORMAT_SHOW_YEAR | FORMAT_SHOW_DATE |
 				FORMAT_SHOW_TIME | FORMAT_ABBREV_MONTH);
 	}
 
 
 	/**
-	 * Convert a timestamps to a readable date in string.
+	 * Convert a timestamps to a readable date in string, it is cached by {@link DateFormatCache}.
 	 *
 	 * @param cxt
 	 * 		{@link android.content.Context}.
@@ -85,6 +100,6 @@ public final class DateTimeUtils {
 	 * @return A date string format.
 	 */
 	public static String timeConvert2(Context cxt, long timestamps) {
-		return formatDateTime(cxt, timestamps, FORMAT_SHOW_YEAR | FORMAT_SHOW_DATE | FORMAT_ABBREV_MONTH);
+		return DateFormatCache.formatDateTime(cxt, timestamps, FORMAT_SHOW_YEAR | FORMAT_SHOW_DATE | FORMAT_ABBREV_MONTH);
 	}
 }
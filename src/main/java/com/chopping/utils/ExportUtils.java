@@ -0,0 +1,328 @@
+package com.chopping.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.GZIPOutputStream;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseErrorHandler;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.os.Build;
+
+import com.chopping.application.LL;
+
+import io.realm.Realm;
+
+/**
+ * Export databases(SQLite and Realm) of application into a directory, ie. for support cases.
+ * <p/>
+ * Files are copied by {@link FileChannel#transferTo(long, long, WritableByteChannel)} so that the kernel copies without
+ * user-space buffers, optional output is gzip-streamed. A SQLite database and its journals are copied while a read
+ * transaction holds their snapshot, the database is opened read-only and never changed or deleted by the export.
+ * <p/>
+ * Call methods in thread.
+ *
+ * @author Xinyue Zhao
+ */
+public final class ExportUtils {
+	/**
+	 * Max bytes of one {@link FileChannel#transferTo(long, long, WritableByteChannel)}, it is also the step of progress.
+	 */
+	private static final long CHUNK = 8 * 1024 * 1024;
+	/**
+	 * Buffer size for gzip-streaming.
+	 */
+	private static final int GZIP_BUFFER = 64 * 1024;
+	/**
+	 * Suffix of write-ahead log of SQLite.
+	 */
+	private static final String WAL = "-wal";
+	/**
+	 * Suffix of shared memory of WAL, it is rebuilt by SQLite and never exported.
+	 */
+	private static final String SHM = "-shm";
+	/**
+	 * Journals that belong to the state of a SQLite database.
+	 */
+	private static final String[] SIDECARS = { WAL, "-journal" };
+
+	/**
+	 * Progress of export.
+	 */
+	public interface OnProgressListener {
+		/**
+		 * Called after a chunk of a file has been copied.
+		 *
+		 * @param file
+		 * 		The source file.
+		 * @param copied
+		 * 		Bytes copied of the file.
+		 * @param total
+		 * 		Size of the file.
+		 */
+		void onProgress(File file, long copied, long total);
+	}
+
+	private ExportUtils() {
+	}
+
+	/**
+	 * Export all SQLite databases and a snapshot of default Realm into {@code targetDir}.
+	 *
+	 * @param cxt
+	 * 		{@link android.content.Context}.
+	 * @param targetDir
+	 * 		Directory to export into, it will be created if necessary.
+	 * @param gzip
+	 * 		{@code true} if files should be gzip-compressed, they get suffix ".gz".
+	 * @param listener
+	 * 		{@link OnProgressListener}, could be {@code null}.
+	 *
+	 * @return Count of files exported.
+	 *
+	 * @throws IOException
+	 * 		When a file can't be exported.
+	 */
+	public static int exportDatabases(Context cxt, File targetDir, boolean gzip, OnProgressListener listener)
+			throws IOException {
+		if (!targetDir.exists() && !targetDir.mkdirs()) {
+			throw new IOException("Can't create " + targetDir);
+		}
+		int count = 0;
+		File dbDir = cxt.getDatabasePath("dummy").getParentFile();
+		File[] dbFiles = dbDir == null ? null : dbDir.listFiles();
+		if (dbFiles != null) {
+			for (File dbFile : dbFiles) {
+				if (dbFile.isFile() && !isSidecar(dbFile)) {
+					count += exportSqlite(dbFile, targetDir, gzip, listener);
+				}
+			}
+		}
+		if (exportRealm(cxt, targetDir, gzip, listener)) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * @return {@code true} if {@code file} is a journal of a SQLite database, it is exported with its database.
+	 */
+	private static boolean isSidecar(File file) {
+		String name = file.getName();
+		for (String suffix : SIDECARS) {
+			if (name.endsWith(suffix)) {
+				return true;
+			}
+		}
+		return name.endsWith(SHM);
+	}
+
+	/**
+	 * Export a SQLite database with its journals. The files are copied while a read transaction holds the snapshot of
+	 * database, so that the export is consistent although App keeps using it: in WAL-mode writers go on and checkpoints
+	 * keep the frames of the snapshot, in rollback-mode writers wait for the shared lock.
+	 * <p/>
+	 * The database is opened read-only, so that its journal-mode isn't touched, and a corrupt database is kept, it
+	 * might be the reason of export. Before Honeycomb opening a corrupt database deletes it, the files are copied
+	 * without snapshot there.
+	 *
+	 * @return Count of files exported.
+	 */
+	private static int exportSqlite(File dbFile, File targetDir, boolean gzip, OnProgressListener listener)
+			throws IOException {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) {
+			return copyWithSidecars(dbFile, targetDir, gzip, listener);
+		}
+		SQLiteDatabase db;
+		try {
+			db = SQLiteDatabase.openDatabase(dbFile.getPath(), null,
+					SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS, new KeepCorrupt());
+		} catch (SQLiteException e) {
+			LL.w("Export " + dbFile + " without snapshot: " + e.toString());
+			return copyWithSidecars(dbFile, targetDir, gzip, listener);
+		}
+		try {
+			boolean snapshot = false;
+			try {
+				//Framework's transactions are write-transactions, a savepoint begins a deferred one.
+				db.execSQL("SAVEPOINT export");
+				snapshot = true;
+				//The first read takes the shared lock or the read-mark of WAL.
+				Cursor cursor = db.rawQuery("SELECT count(*) FROM sqlite_master", null);
+				try {
+					cursor.moveToFirst();
+				} finally {
+					cursor.close();
+				}
+			} catch (SQLiteException e) {
+				LL.w("Export " + dbFile + " without snapshot: " + e.toString());
+				if (snapshot) {
+					release(db);
+				}
+				return copyWithSidecars(dbFile, targetDir, gzip, listener);
+			}
+			try {
+				return copyWithSidecars(dbFile, targetDir, gzip, listener);
+			} finally {
+				release(db);
+			}
+		} finally {
+			db.close();
+		}
+	}
+
+	/**
+	 * End the read transaction of {@link #exportSqlite(File, File, boolean, OnProgressListener)}.
+	 */
+	private static void release(SQLiteDatabase db) {
+		try {
+			db.execSQL("RELEASE export");
+		} catch (SQLiteException e) {
+			LL.w("Can't end snapshot of " + db.getPath() + ": " + e.toString());
+		}
+	}
+
+	/**
+	 * Replace the default {@link DatabaseErrorHandler} which deletes a corrupt database.
+	 */
+	private static final class KeepCorrupt implements DatabaseErrorHandler {
+		@Override
+		public void onCorruption(SQLiteDatabase dbObj) {
+			LL.w("Export a corrupt database: " + dbObj.getPath());
+		}
+	}
+
+	/**
+	 * Copy a database and its journals that exist.
+	 *
+	 * @return Count of files copied.
+	 */
+	private static int copyWithSidecars(File dbFile, File targetDir, boolean gzip, OnProgressListener listener)
+			throws IOException {
+		int count = 0;
+		copy(dbFile, new File(targetDir, dbFile.getName() + (gzip ? ".gz" : "")), gzip, listener);
+		count++;
+		for (String suffix : SIDECARS) {
+			File sidecar = new File(dbFile.getPath() + suffix);
+			if (sidecar.isFile() && sidecar.length() > 0) {
+				copy(sidecar, new File(targetDir, sidecar.getName() + (gzip ? ".gz" : "")), gzip, listener);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Export a snapshot of default Realm into {@code targetDir}.
+	 *
+	 * @return {@code true} if Realm has been exported, {@code false} if there's no default Realm.
+	 */
+	public static boolean exportRealm(Context cxt, File targetDir, boolean gzip, OnProgressListener listener)
+			throws IOException {
+		Realm db;
+		try {
+			db = Realm.getDefaultInstance();
+		} catch (RuntimeException e) {
+			LL.w("No default Realm to export: " + e.toString());
+			return false;
+		}
+		try {
+			String name = new File(db.getPath()).getName();
+			File snapshot = gzip ? new File(cxt.getCacheDir(), name + ".snapshot") : new File(targetDir, name);
+			if (snapshot.exists() && !snapshot.delete()) {
+				throw new IOException("Can't delete " + snapshot);
+			}
+			db.writeCopyTo(snapshot);
+			if (gzip) {
+				try {
+					copy(snapshot, new File(targetDir, name + ".gz"), true, listener);
+				} finally {
+					snapshot.delete();
+				}
+			} else if (listener != null) {
+				listener.onProgress(snapshot, snapshot.length(), snapshot.length());
+			}
+			return true;
+		} finally {
+			db.close();
+		}
+	}
+
+	/**
+	 * Copy file {@code source} to {@code dest}.
+	 *
+	 * @param source
+	 * 		Source file.
+	 * @param dest
+	 * 		Target file, it will be overwritten.
+	 * @param gzip
+	 * 		{@code true} if {@code dest} should be gzip-compressed.
+	 * @param listener
+	 * 		{@link OnProgressListener}, could be {@code null}.
+	 *
+	 * @throws IOException
+	 * 		When the file can't be copied.
+	 */
+	public static void copy(File source, File dest, boolean gzip, OnProgressListener listener) throws IOException {
+		FileInputStream input = new FileInputStream(source);
+		OutputStream output = null;
+		try {
+			FileChannel in = input.getChannel();
+			long total = in.size();
+			output = new FileOutputStream(dest);
+			if (gzip) {
+				output = new GZIPOutputStream(output, GZIP_BUFFER);
+				copyStreaming(source, in, Channels.newChannel(output), total, listener);
+			} else {
+				FileChannel out = ((FileOutputStream) output).getChannel();
+				long copied = 0;
+				while (copied < total) {
+					long count = in.transferTo(copied, Math.min(CHUNK, total - copied), out);
+					if (count <= 0) {
+						//The source has shrunk while copying.
+						throw new IOException(source + " has been truncated at " + copied + " of " + total);
+					}
+					copied += count;
+					if (listener != null) {
+						listener.onProgress(source, copied, total);
+					}
+				}
+			}
+		} finally {
+			input.close();
+			if (output != null) {
+				output.close();
+			}
+		}
+	}
+
+	/**
+	 * Gzip needs bytes in user-space, read chunks into a direct buffer and write them into the gzip-channel.
+	 */
+	private static void copyStreaming(File source, FileChannel in, WritableByteChannel out, long total,
+			OnProgressListener listener) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocateDirect(GZIP_BUFFER);
+		long copied = 0;
+		long reported = 0;
+		while (in.read(buf) > 0) {
+			buf.flip();
+			while (buf.hasRemaining()) {
+				copied += out.write(buf);
+			}
+			buf.clear();
+			if (listener != null && (copied - reported >= CHUNK || copied == total)) {
+				listener.onProgress(source, copied, total);
+				reported = copied;
+			}
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package com.chopping.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.media.MediaMetadataRetriever;
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.v4.util.LruCache;
+
+import com.chopping.application.LL;
+
+/**
+ * Probe durations of media in background with {@link MediaMetadataRetriever}, which reads only metadata instead of
+ * preparing a whole {@link MediaPlayer}.
+ * <p/>
+ * Probes run on a small pool of threads, concurrent probes of one url are merged. Durations are cached in memory and on
+ * disk by url, failures are not cached, so that they can be tried again ie. when device is online again.
+ *
+ * @author Xinyue Zhao
+ */
+public final class MediaDurationProber {
+	/**
+	 * Callback of a probe, called on main thread.
+	 */
+	public interface OnDurationListener {
+		/**
+		 * @param url
+		 * 		The url to media.
+		 * @param durationMs
+		 * 		Duration in milliseconds, {@code -1} if it can't be probed.
+		 */
+		void onDuration(String url, long durationMs);
+	}
+
+	private static final String PREFS_NAME = "chopping.media.durations";
+	private static final int THREADS = 2;
+	private static final int MAX_MEMORY_ENTRIES = 128;
+	/**
+	 * Disk-cache is cleared when it grows over this.
+	 */
+	private static final int MAX_DISK_ENTRIES = 512;
+
+	private static MediaDurationProber sInstance;
+
+	private final Context mContext;
+	private final SharedPreferences mDiskCache;
+	private final LruCache<String, Long> mMemoryCache = new LruCache<>(MAX_MEMORY_ENTRIES);
+	/**
+	 * Listeners of running probes by url.
+	 */
+	private final Map<String, List<OnDurationListener>> mPending = new HashMap<>();
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+	private final ExecutorService mExecutor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+		private final AtomicInteger mCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable r) {
+			return new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+					r.run();
+				}
+			}, "MediaDurationProber #" + mCount.incrementAndGet());
+		}
+	});
+
+	private MediaDurationProber(Context cxt) {
+		mContext = cxt.getApplicationContext();
+		mDiskCache = mContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+	}
+
+	public static MediaDurationProber getInstance(Context cxt) {
+		if (sInstance == null) {
+			synchronized (MediaDurationProber.class) {
+				if (sInstance == null) {
+					sInstance = new MediaDurationProber(cxt);
+				}
+			}
+		}
+		return sInstance;
+	}
+
+	/**
+	 * @return Cached duration of {@code url} in milliseconds, {@code -1} if it hasn't been probed.
+	 */
+	public long getCached(String url) {
+		Long duration = mMemoryCache.get(url);
+		if (duration != null) {
+			return duration;
+		}
+		long stored = mDiskCache.getLong(url, -1);
+		if (stored >= 0) {
+			mMemoryCache.put(url, stored);
+		}
+		return stored;
+	}
+
+	/**
+	 * Probe durations of {@code urls}, {@code listener} is called once for each url on main thread. Cached durations
+	 * are delivered immediately.
+	 *
+	 * @param urls
+	 * 		The urls to media.
+	 * @param listener
+	 * 		{@link OnDurationListener}.
+	 */
+	public void probe(Collection<String> urls, OnDurationListener listener) {
+		for (String url : urls) {
+			probe(url, listener);
+		}
+	}
+
+	/**
+	 * Probe duration of {@code url}, {@code listener} is called on main thread.
+	 */
+	public void probe(final String url, OnDurationListener listener) {
+		long cached = getCached(url);
+		if (cached >= 0) {
+			deliver(listener, url, cached);
+			return;
+		}
+		synchronized (mPending) {
+			List<OnDurationListener> listeners = mPending.get(url);
+			if (listeners != null) {
+				listeners.add(listener);
+				return;
+			}
+			listeners = new ArrayList<>();
+			listeners.add(listener);
+			mPending.put(url, listeners);
+		}
+		mExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				long duration = probeNow(url);
+				List<OnDurationListener> listeners;
+				synchronized (mPending) {
+					listeners = mPending.remove(url);
+				}
+				if (listeners != null) {
+					for (OnDurationListener l : listeners) {
+						deliver(l, url, duration);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Probe duration of {@code url} on current thread, it uses caches and fills them.
+	 *
+	 * @return Duration in milliseconds, {@code -1} if it can't be probed.
+	 */
+	public long probeNow(String url) {
+		long cached = getCached(url);
+		if (cached >= 0) {
+			return cached;
+		}
+		long duration = canRetrieve(url) ? retrieve(url) : prepare(url);
+		if (duration >= 0) {
+			mMemoryCache.put(url, duration);
+			SharedPreferences.Editor editor = mDiskCache.edit();
+			if (mDiskCache.getAll().size() >= MAX_DISK_ENTRIES) {
+				editor.clear();
+			}
+			editor.putLong(url, duration).apply();
+		}
+		return duration;
+	}
+
+	/**
+	 * {@link MediaMetadataRetriever} is there since Gingerbread MR1, but it reads network-uris only since ICS.
+	 */
+	private static boolean canRetrieve(String url) {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.GINGERBREAD_MR1) {
+			return false;
+		}
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH || !isRemote(url);
+	}
+
+	private static boolean isRemote(String url) {
+		String scheme = Uri.parse(url).getScheme();
+		return scheme != null && scheme.startsWith("http");
+	}
+
+	@TargetApi(Build.VERSION_CODES.GINGERBREAD_MR1)
+	private long retrieve(String url) {
+		MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+		try {
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH && isRemote(url)) {
+				retriever.setDataSource(url, new HashMap<String, String>());
+			} else {
+				retriever.setDataSource(mContext, Uri.parse(url));
+			}
+			String duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+			return duration == null ? -1 : Long.parseLong(duration);
+		} catch (RuntimeException e) {
+			LL.e("Can't get duration of media " + url + ": " + e.toString());
+			return -1;
+		} finally {
+			retriever.release();
+		}
+	}
+
+	/**
+	 * Before {@link MediaMetadataRetriever}, or for network-uris before ICS, there's only {@link MediaPlayer}.
+	 */
+	private long prepare(String url) {
+		MediaPlayer mp = MediaPlayer.create(mContext, Uri.parse(url));
+		if (mp == null) {
+			LL.e("Can't get duration of media " + url);
+			return -1;
+		}
+		try {
+			return mp.getDuration();
+		} finally {
+			mp.release();
+		}
+	}
+
+	private void deliver(final OnDurationListener listener, final String url, final long duration) {
+		if (Looper.myLooper() == Looper.getMainLooper()) {
+			listener.onDuration(url, duration);
+			return;
+		}
+		mHandler.post(new Runnable() {
+			@Override
+			public void run() {
+				listener.onDuration(url, duration);
+			}
+		});
+	}
+}
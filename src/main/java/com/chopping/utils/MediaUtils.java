@@ -1,14 +1,11 @@
 package com.chopping.utils;
 
-import com.chopping.application.LL;
-
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 import android.content.Context;
-import android.media.MediaPlayer;
-import android.net.Uri;
 
 /**
  * Utils for media usages.
@@ -17,7 +14,8 @@ import android.net.Uri;
  */
 public final class MediaUtils {
 	/**
-	 * Asyn-post to get duration of video.
+	 * Get duration of video, it blocks until the duration has been probed, call {@link #getVideoDurations(Context,
+	 * Collection, MediaDurationProber.OnDurationListener)} on main thread instead.
 	 *
 	 * @param _context
 	 * 		{@link android.content.Context}.
@@ -29,20 +27,40 @@ public final class MediaUtils {
 	 * Null might be returned if unsuccessful since some reasons like with offline status try to get a remote video.
 	 */
 	public static String getVideoDuration(Context _context, String _urlToVideo) {
-		String dur = null;
-		try {
-			MediaPlayer mp = MediaPlayer.create(_context, Uri.parse(_urlToVideo));
-			int duration = mp.getDuration();
-			mp.release();
-			/*convert millis to appropriate time*/
-			NumberFormat f = new DecimalFormat("##00");
-			dur = String.format("%s:%s",
-					f.format(TimeUnit.MILLISECONDS.toMinutes(duration)),
-					f.format(TimeUnit.MILLISECONDS.toSeconds(duration) -
-							TimeUnit.MINUTES.toSeconds(TimeUnit.MILLISECONDS.toMinutes(duration))));
-		} catch (Exception _e) {
-			LL.e("Can't get duration of video, checkout internet connection.");
-		}
-		return dur;
+		long duration = MediaDurationProber.getInstance(_context).probeNow(_urlToVideo);
+		return duration < 0 ? null : formatDuration(duration);
+	}
+
+	/**
+	 * Asyn-probe durations of videos, durations are cached by url.
+	 *
+	 * @param _context
+	 * 		{@link android.content.Context}.
+	 * @param _urlsToVideos
+	 * 		The urls to videos.
+	 * @param _listener
+	 * 		{@link com.chopping.utils.MediaDurationProber.OnDurationListener} called for each url on main thread, format
+	 * 		durations by {@link #formatDuration(long)}.
+	 */
+	public static void getVideoDurations(Context _context, Collection<String> _urlsToVideos,
+			MediaDurationProber.OnDurationListener _listener) {
+		MediaDurationProber.getInstance(_context).probe(_urlsToVideos, _listener);
+	}
+
+	/**
+	 * Format a duration like {@code 03:45}.
+	 *
+	 * @param duration
+	 * 		Duration in milliseconds.
+	 *
+	 * @return {@link java.lang.String}. The Duration in long format.
+	 */
+	public static String formatDuration(long duration) {
+		/*convert millis to appropriate time*/
+		NumberFormat f = new DecimalFormat("##00");
+		return String.format("%s:%s",
+				f.format(TimeUnit.MILLISECONDS.toMinutes(duration)),
+				f.format(TimeUnit.MILLISECONDS.toSeconds(duration) -
+						TimeUnit.MINUTES.toSeconds(TimeUnit.MILLISECONDS.toMinutes(duration))));
 	}
 }
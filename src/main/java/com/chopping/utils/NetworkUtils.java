@@ -4,13 +4,12 @@ import android.annotation.TargetApi;
 import android.content.ActivityNotFoundException;
 import android.content.Context;
 import android.content.Intent;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 import android.os.Build;
 import android.provider.Settings;
 import android.telephony.TelephonyManager;
 
 import com.chopping.application.LL;
+import com.chopping.net.ConnectivityMonitor;
 
 import java.math.BigInteger;
 import java.net.Inet6Address;
@@ -40,64 +39,22 @@ public final class NetworkUtils {
 
 	/**
 	 * Check if the device is connected to the internet (mobile network or WIFI).
+	 * <p/>
+	 * It answers from {@link ConnectivityMonitor} without IPC.
 	 */
 	public static boolean isOnline(Context _context) {
-		boolean online = false;
-
-		TelephonyManager tmanager = (TelephonyManager) _context.getSystemService(Context.TELEPHONY_SERVICE);
-		if (tmanager != null) {
-			if (tmanager.getDataState() == TelephonyManager.DATA_CONNECTED) {
-				// Mobile network
-				online = true;
-			} else {
-				// WIFI
-				ConnectivityManager cmanager = (ConnectivityManager) _context
-						.getSystemService(Context.CONNECTIVITY_SERVICE);
-				if (cmanager != null) {
-					NetworkInfo info = cmanager.getActiveNetworkInfo();
-					if (info != null) {
-						online = info.isConnected();
-					}
-				}
-			}
-		}
-
-		return online;
+		return ConnectivityMonitor.getInstance(_context).getState().isOnline();
 	}
 
 
 	/**
-	 * Evaluate the current network connection and return the corresponding type, e.g. CONNECTION_WIFI.
+	 * Evaluate the current network connection and return the corresponding type, e.g. CONNECTION_WIFI. A network that
+	 * is still connecting reports its type as well, {@link #isOnline(Context)} tells whether it is connected.
+	 * <p/>
+	 * It answers from {@link ConnectivityMonitor} without IPC.
 	 */
 	public static byte getCurrentNetworkType(Context _context) {
-		NetworkInfo netInfo = ((ConnectivityManager) _context.getSystemService(Context.CONNECTIVITY_SERVICE))
-				.getActiveNetworkInfo();
-
-		if (netInfo == null) {
-			return CONNECTION_OFFLINE;
-		}
-
-		if (netInfo.getType() == ConnectivityManager.TYPE_WIFI) {
-			return CONNECTION_WIFI;
-		}
-
-		if (netInfo.isRoaming()) {
-			return CONNECTION_ROAMING;
-		}
-
-		if (!(netInfo.getType() == ConnectivityManager.TYPE_MOBILE
-				&& (netInfo.getSubtype() == TelephonyManager.NETWORK_TYPE_UMTS
-				|| netInfo.getSubtype() == TelephonyManager.NETWORK_TYPE_HSDPA
-				|| netInfo.getSubtype() == TelephonyManager.NETWORK_TYPE_HSUPA
-				|| netInfo.getSubtype() == TelephonyManager.NETWORK_TYPE_HSPA
-				|| netInfo.getSubtype() == 13 // NETWORK_TYPE_LTE
-				|| netInfo.getSubtype() == 15))) // NETWORK_TYPE_HSPAP
-		{
-
-			return CONNECTION_SLOW;
-		}
-
-		return CONNECTION_FAST;
+		return ConnectivityMonitor.getInstance(_context).getState().getType();
 	}
 
 
@@ -150,26 +107,33 @@ public final class NetworkUtils {
 	public static synchronized String getUserId(Context _context) {
 		if (sUserId == null) {
 			TelephonyManager tm = (TelephonyManager) _context.getSystemService(Context.TELEPHONY_SERVICE);
-			String id = tm.getDeviceId();
-			try {
-				MessageDigest digester = MessageDigest.getInstance("MD5");
-				digester.update(id.getBytes());
-				byte[] digest = digester.digest();
-
-				// Convert to hex string
-				BigInteger converter = new BigInteger(1, digest);
-				String md5 = converter.toString(16);
-				while (md5.length() < 32) {
-					md5 = "0" + md5;
-				}
-				sUserId = md5;
-			} catch (NoSuchAlgorithmException _e) {
-				LL.e("Could not find MD5");
-			}
+			sUserId = md5(tm.getDeviceId());
 		}
 		return sUserId;
 	}
 
+	/**
+	 * Return a MD5 hash in hex of {@code id}, {@code null} if MD5 is not available.
+	 */
+	static String md5(String id) {
+		try {
+			MessageDigest digester = MessageDigest.getInstance("MD5");
+			digester.update(id.getBytes());
+			byte[] digest = digester.digest();
+
+			// Convert to hex string
+			BigInteger converter = new BigInteger(1, digest);
+			String md5 = converter.toString(16);
+			while (md5.length() < 32) {
+				md5 = "0" + md5;
+			}
+			return md5;
+		} catch (NoSuchAlgorithmException _e) {
+			LL.e("Could not find MD5");
+			return null;
+		}
+	}
+
 	/**
 	 * Test for whether Airplane-Mode has been on or off.
 	 *
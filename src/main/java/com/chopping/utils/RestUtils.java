@@ -6,15 +6,18 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import android.app.Application;
 import android.content.Context;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 import android.support.annotation.Nullable;
 
 import com.chopping.application.LL;
+import com.chopping.net.ConnectivityMonitor;
+import com.chopping.net.SyncPolicy;
 import com.chopping.rest.ExecutePending;
+import com.chopping.rest.PendingFlights;
+import com.chopping.rest.RealmSession;
 import com.chopping.rest.RestObject;
 
 import io.realm.Realm;
@@ -27,6 +30,18 @@ import io.realm.Sort;
  * Utils class for Rest-package.
  */
 public final class RestUtils {
+	/**
+	 * Replays of pending items, keyed by type and status.
+	 */
+	private static final ConcurrentHashMap<String, Replay> sPendingReplays = new ConcurrentHashMap<>();
+
+	/**
+	 * Replay of one type and status, triggers while it is running are queued.
+	 */
+	private static final class Replay {
+		private final List<ExecutePending> mQueue = new ArrayList<>();
+		private       boolean              mRunning;
+	}
 
 	/**
 	 * Helper for checking current network status.
@@ -37,9 +52,9 @@ public final class RestUtils {
 	 * @return {@code true} if network is o.k.
 	 */
 	public static boolean isNetworkAvailable( Context cxt ) {
-		ConnectivityManager connectivityManager = (ConnectivityManager) cxt.getSystemService( Context.CONNECTIVITY_SERVICE );
-		NetworkInfo         activeNetworkInfo   = connectivityManager.getActiveNetworkInfo();
-		return activeNetworkInfo != null && activeNetworkInfo.isConnected();
+		return ConnectivityMonitor.getInstance( cxt )
+								  .getState()
+								  .isOnline();
 	}
 
 	/**
@@ -49,7 +64,7 @@ public final class RestUtils {
 	 * 		The meta of object.
 	 */
 	public static void clearPending( Class<? extends RealmObject> clazz ) {
-		Realm db = Realm.getDefaultInstance();
+		Realm db = RealmSession.acquire();
 		RealmResults<? extends RealmObject> notSyncedResults = db.where( clazz )
 														.equalTo(
 																"status",
@@ -63,26 +78,29 @@ public final class RestUtils {
 																 )
 																 .findAll();
 		db.beginTransaction();
-		notSyncedResults.clear();
+		try {
+			notSyncedResults.clear();
 
-		List<? extends RealmObject> delRes = new ArrayList<>( wantDeleteResults );
-		for(RealmObject deleted : delRes){
-			try {
-				Class cls = Class.forName(clazz.getName());
-				Method setMethod      = cls.getMethod(  "setStatus", Integer.TYPE );
-				setMethod.invoke(
-						deleted,
-						RestObject.SYNCED
-				);
-			} catch( Exception ex ) {
-				LL.e( ex.toString() );
+			List<? extends RealmObject> delRes = new ArrayList<>( wantDeleteResults );
+			for(RealmObject deleted : delRes){
+				try {
+					Class cls = Class.forName(clazz.getName());
+					Method setMethod      = cls.getMethod(  "setStatus", Integer.TYPE );
+					setMethod.invoke(
+							deleted,
+							RestObject.SYNCED
+					);
+				} catch( Exception ex ) {
+					LL.e( ex.toString() );
+				}
+				db.copyToRealmOrUpdate( deleted );
 			}
-			db.copyToRealmOrUpdate( deleted );
-		}
-		db.commitTransaction();
-
-		if( !db.isClosed() ) {
-			db.close();
+			db.commitTransaction();
+		} finally {
+			if( db.isInTransaction() ) {
+				db.cancelTransaction();
+			}
+			RealmSession.release( db );
 		}
 	}
 
@@ -94,20 +112,26 @@ public final class RestUtils {
 	 * 		The meta of object.
 	 */
 	public static void clear( Class<? extends RealmObject> clazz ) {
-		Realm db = Realm.getDefaultInstance();
+		Realm db = RealmSession.acquire();
 		RealmResults<? extends RealmObject> results = db.where( clazz )
 														.findAll();
 		db.beginTransaction();
-		results.clear();
-		db.commitTransaction();
-
-		if( !db.isClosed() ) {
-			db.close();
+		try {
+			results.clear();
+			db.commitTransaction();
+		} finally {
+			if( db.isInTransaction() ) {
+				db.cancelTransaction();
+			}
+			RealmSession.release( db );
 		}
 	}
 
 	/**
 	 * Help method to execute pending requests.
+	 * <p/>
+	 * At most one replay runs for a type and status at a time, a call while a replay is running is queued and runs
+	 * after it. Items whose requests are still on the way are skipped, see {@link PendingFlights}.
 	 *
 	 * @param exp
 	 * 		{@link ExecutePending} to execute pending.
@@ -115,7 +139,59 @@ public final class RestUtils {
 	 * 		Status of sync.
 	 */
 	public static void executePending( ExecutePending exp, int statusBefore ) {
-		Realm db = Realm.getDefaultInstance();
+		String key = exp.build()
+						.DBType()
+						.getName() + "#" + statusBefore;
+		Replay replay = sPendingReplays.get( key );
+		if( replay == null ) {
+			Replay newReplay = new Replay();
+			replay = sPendingReplays.putIfAbsent(
+					key,
+					newReplay
+			);
+			if( replay == null ) {
+				replay = newReplay;
+			}
+		}
+		synchronized( replay ) {
+			if( !replay.mQueue.contains( exp ) ) {
+				replay.mQueue.add( exp );
+			}
+			if( replay.mRunning ) {
+				//Runs after the running replay.
+				return;
+			}
+			replay.mRunning = true;
+		}
+		for( ; ; ) {
+			ExecutePending next;
+			synchronized( replay ) {
+				if( replay.mQueue.isEmpty() ) {
+					replay.mRunning = false;
+					return;
+				}
+				next = replay.mQueue.remove( 0 );
+			}
+			//One Realm for the whole replay, PendingFlights keeps it open for updateDB of the answers.
+			RealmSession.begin();
+			try {
+				replayPending(
+						next,
+						statusBefore
+				);
+			} catch( RuntimeException ex ) {
+				synchronized( replay ) {
+					replay.mRunning = false;
+				}
+				throw ex;
+			} finally {
+				RealmSession.end();
+			}
+		}
+	}
+
+	private static void replayPending( ExecutePending exp, int statusBefore ) {
+		Realm db = RealmSession.acquire();
 		RealmResults<? extends RealmObject> notSyncItems = db.where( exp.build()
 																		.DBType() )
 															 .equalTo(
@@ -131,10 +207,11 @@ public final class RestUtils {
 			restObjects.add( exp.build()
 								.newFromDB( item ) );
 		}
-		if( !db.isClosed() ) {
-			db.close();
+		RealmSession.release( db );
+		restObjects = PendingFlights.take( restObjects );
+		if( !restObjects.isEmpty() ) {
+			exp.executePending( restObjects );
 		}
-		exp.executePending( restObjects );
 	}
 
 	/**
@@ -184,6 +261,8 @@ public final class RestUtils {
 
 	/**
 	 * A common condition check whether application should load new data or not.
+	 * <p/>
+	 * It is decided by {@link SyncPolicy} with measured bandwidth of current network.
 	 *
 	 * @param cxt
 	 * 		{@link Context}.
@@ -191,10 +270,7 @@ public final class RestUtils {
 	 * @return {@code true} when the application needs to load local data.
 	 */
 	public static boolean shouldLoadLocal( Context cxt ) {
-		boolean should;
-		should = !RestUtils.isNetworkAvailable( cxt );
-		should |= NetworkUtils.getCurrentNetworkType( cxt.getApplicationContext() ) != NetworkUtils.CONNECTION_WIFI;
-		return should;
+		return SyncPolicy.decide( cxt ) == SyncPolicy.Mode.LOCAL_ONLY;
 	}
 
 }
@@ -0,0 +1,136 @@
+package com.chopping.utils;
+
+/**
+ * Percent-encoder of RFC 3986 for components of URL(ie. query values). Unreserved chars(ALPHA, DIGIT, "-", ".", "_",
+ * "~") are kept, all others are encoded as UTF-8 bytes with upper-case hex.
+ * <p/>
+ * It runs in one pass with a lookup-table and writes into a builder that is reused per thread. A string that needs no
+ * escaping is returned as it is without any allocation.
+ *
+ * @author Xinyue Zhao
+ */
+public final class UrlEncoder {
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+	/**
+	 * {@code true} for unreserved chars of ASCII.
+	 */
+	private static final boolean[] UNRESERVED = new boolean[128];
+	/**
+	 * Builders longer than this are not kept for reuse.
+	 */
+	private static final int MAX_KEPT_CAPACITY = 8 * 1024;
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			UNRESERVED[c] = true;
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			UNRESERVED[c] = true;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			UNRESERVED[c] = true;
+		}
+		UNRESERVED['-'] = true;
+		UNRESERVED['.'] = true;
+		UNRESERVED['_'] = true;
+		UNRESERVED['~'] = true;
+	}
+
+	private static final ThreadLocal<StringBuilder> sBuilder = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(64);
+		}
+	};
+
+	private UrlEncoder() {
+	}
+
+	/**
+	 * Encode whole {@code s}.
+	 *
+	 * @param s
+	 * 		String to encode.
+	 *
+	 * @return The encoded string, {@code s} self if nothing needs escaping.
+	 */
+	public static String encode(String s) {
+		return encode(s, 0, s.length());
+	}
+
+	/**
+	 * Encode {@code s} without leading and trailing whitespace, like {@link String#trim()} but without an intermediate
+	 * string.
+	 *
+	 * @param s
+	 * 		String to encode.
+	 *
+	 * @return The encoded string.
+	 */
+	public static String encodeTrimmed(String s) {
+		int start = 0;
+		int end = s.length();
+		while (start < end && s.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && s.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return encode(s, start, end);
+	}
+
+	/**
+	 * Encode chars of {@code s} from {@code start}(inclusive) to {@code end}(exclusive).
+	 *
+	 * @return The encoded string.
+	 */
+	public static String encode(String s, int start, int end) {
+		int first = start;
+		while (first < end && isUnreserved(s.charAt(first))) {
+			first++;
+		}
+		if (first == end) {
+			return start == 0 && end == s.length() ? s : s.substring(start, end);
+		}
+		StringBuilder out = sBuilder.get();
+		out.setLength(0);
+		out.append(s, start, first);
+		for (int i = first; i < end; i++) {
+			char c = s.charAt(i);
+			if (isUnreserved(c)) {
+				out.append(c);
+			} else if (c < 0x80) {
+				appendByte(out, c);
+			} else if (c < 0x800) {
+				appendByte(out, 0xC0 | (c >> 6));
+				appendByte(out, 0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				appendByte(out, 0xF0 | (cp >> 18));
+				appendByte(out, 0x80 | ((cp >> 12) & 0x3F));
+				appendByte(out, 0x80 | ((cp >> 6) & 0x3F));
+				appendByte(out, 0x80 | (cp & 0x3F));
+			} else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+				//Malformed, like String#getBytes(), use "?".
+				appendByte(out, '?');
+			} else {
+				appendByte(out, 0xE0 | (c >> 12));
+				appendByte(out, 0x80 | ((c >> 6) & 0x3F));
+				appendByte(out, 0x80 | (c & 0x3F));
+			}
+		}
+		String result = out.toString();
+		if (out.capacity() > MAX_KEPT_CAPACITY) {
+			sBuilder.remove();
+		}
+		return result;
+	}
+
+	private static boolean isUnreserved(char c) {
+		return c < 128 && UNRESERVED[c];
+	}
+
+	private static void appendByte(StringBuilder out, int b) {
+		out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+	}
+}
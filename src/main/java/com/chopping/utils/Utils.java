@@ -1,14 +1,8 @@
 package com.chopping.utils;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URLEncoder;
 import java.util.Random;
 
 import android.content.Context;
@@ -81,37 +75,21 @@ public final class Utils {
 	}
 
 	/**
-	 * Encode string for http query with UTF-8.
+	 * Encode string for http query with UTF-8, see {@link UrlEncoder}.
 	 * @param keywords
 	 * @return The encoded string.
 	 */
 	public static String encode(String keywords) {
-		try {
-			return URLEncoder.encode(keywords, "UTF-8");
-		} catch (UnsupportedEncodingException _e1) {
-			return new String(keywords.trim().replace(" ", "%20").replace("&", "%26").replace(",", "%2c")
-					.replace("(", "%28").replace(")", "%29").replace("!", "%21").replace("=", "%3D")
-					.replace("<", "%3C").replace(">", "%3E").replace("#", "%23").replace("$", "%24")
-					.replace("'", "%27").replace("*", "%2A").replace("-", "%2D").replace(".", "%2E")
-					.replace("/", "%2F").replace(":", "%3A").replace(";", "%3B").replace("?", "%3F")
-					.replace("@", "%40").replace("[", "%5B").replace("\\", "%5C").replace("]", "%5D")
-					.replace("_", "%5F").replace("`", "%60").replace("{", "%7B").replace("|", "%7C")
-					.replace("}", "%7D"));
-		}
+		return UrlEncoder.encode(keywords);
 	}
 
 	/**
-	 * Encode string for http query with simple replacement.
+	 * Encode string for http query without leading and trailing whitespace, see {@link UrlEncoder}.
 	 * @param keywords
 	 * @return The encoded string.
 	 */
 	public static String replaceToEncode(String keywords) {
-		return new String(keywords.trim().replace(" ", "%20").replace("&", "%26").replace(",", "%2c")
-				.replace("(", "%28").replace(")", "%29").replace("!", "%21").replace("=", "%3D").replace("<", "%3C")
-				.replace(">", "%3E").replace("#", "%23").replace("$", "%24").replace("'", "%27").replace("*", "%2A")
-				.replace("-", "%2D").replace(".", "%2E").replace("/", "%2F").replace(":", "%3A").replace(";", "%3B")
-				.replace("?", "%3F").replace("@", "%40").replace("[", "%5B").replace("\\", "%5C").replace("]", "%5D")
-				.replace("_", "%5F").replace("`", "%60").replace("{", "%7B").replace("|", "%7C").replace("}", "%7D"));
+		return UrlEncoder.encodeTrimmed(keywords);
 	}
 
 
@@ -152,7 +130,7 @@ public final class Utils {
 	public static boolean isAppInstalled(String packageName, PackageManager pm) {
 		boolean found;
 		try {
-			pm.getPackageInfo(packageName, PackageManager.GET_ACTIVITIES);
+			pm.getPackageInfo(packageName, 0);
 			found = true;
 		} catch (PackageManager.NameNotFoundException e) {
 			found = false;
@@ -178,7 +156,8 @@ public final class Utils {
 	/**
 	 * Helper method to dump all data from DB from private location to public readable one.
 	 * <p/>
-	 * It is used for debug.
+	 * It is used for debug, see {@link ExportUtils#exportDatabases(Context, File, boolean, ExportUtils.OnProgressListener)}
+	 * for exporting all databases inc. Realm.
 	 * @param cxt {@link android.content.Context}.
 	 * @param dbName Database name.
 	 */
@@ -204,16 +183,7 @@ public final class Utils {
 				LL.d("dumpSqlite from: " + source.getAbsolutePath());
 				if(source.exists()){
 					LL.d("dumpSqlite to: " + dest.getAbsolutePath());
-					InputStream src=new FileInputStream(source);
-					OutputStream dst=new FileOutputStream(dest);
-					// Copy the bits from instream to outstream
-					byte[] buf = new byte[1024];
-					int len;
-					while ((len = src.read(buf)) > 0) {
-						dst.write(buf, 0, len);
-					}
-					src.close();
-					dst.close();
+					ExportUtils.copy(source, dest, false, null);
 				}
 			}
 		} catch (Exception ex) {
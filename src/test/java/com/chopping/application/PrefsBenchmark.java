@@ -0,0 +1,57 @@
+package com.chopping.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of parsing App's configuration like {@link BasicPrefs} and of {@link LL#mkTag()}.
+ *
+ * @author Xinyue Zhao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrefsBenchmark {
+	private byte[] mProperties;
+
+	@Setup
+	public void setUp() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			builder.append("int_").append(i).append('=').append(i * 1000).append('\n');
+			builder.append("long_").append(i).append('=').append(Long.MAX_VALUE - i).append('\n');
+			builder.append("float_").append(i).append('=').append(i + 0.5f).append('\n');
+			builder.append("bool_").append(i).append('=').append(i % 2 == 0 ? "true" : "False").append('\n');
+			builder.append("url_").append(i).append("=http://www.example.com/config/").append(i).append(".json\n");
+		}
+		mProperties = builder.toString().getBytes();
+	}
+
+	/**
+	 * Load .properties and sniff the type of every value, what {@link BasicPrefs} does without writing preferences.
+	 */
+	@Benchmark
+	public void parseProperties(Blackhole bh) throws IOException {
+		Properties prop = new Properties();
+		prop.load(new ByteArrayInputStream(mProperties));
+		for (String name : prop.stringPropertyNames()) {
+			bh.consume(BasicPrefs.parseValue(prop.getProperty(name)));
+		}
+	}
+
+	@Benchmark
+	public String mkTag() {
+		return LL.mkTag();
+	}
+}
@@ -0,0 +1,52 @@
+package com.chopping.data;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark of parsing {@link AppList} by Gson, like {@link com.chopping.net.AppListRequestTask}.
+ *
+ * @author Xinyue Zhao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AppListBenchmark {
+	@Param({ "10", "100" })
+	public int mApps;
+
+	private final Gson mGson = new Gson();
+	private String mJson;
+
+	@Setup
+	public void setUp() {
+		StringBuilder builder = new StringBuilder("{\"apps\":[");
+		for (int i = 0; i < mApps; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("{\"name\":\"App ").append(i)
+					.append("\",\"free\":").append(i % 2 == 0)
+					.append(",\"packageName\":\"com.example.app").append(i)
+					.append("\",\"logo_url\":\"http://www.example.com/logo/").append(i)
+					.append(".png\",\"playstore_url\":\"https://play.google.com/store/apps/details?id=com.example.app")
+					.append(i).append("\"}");
+		}
+		mJson = builder.append("]}").toString();
+	}
+
+	@Benchmark
+	public AppList parse() {
+		return mGson.fromJson(mJson, AppList.class);
+	}
+}
@@ -0,0 +1,69 @@
+package com.chopping.utils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks of encoding, hashing and time-zone transformation in {@link Utils}, {@link NetworkUtils} and {@link
+ * DateTimeUtils}.
+ *
+ * @author Xinyue Zhao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilsBenchmark {
+	@Param({ "plain", "query" })
+	public String mKind;
+
+	private String mKeywords;
+	private String mDeviceId;
+	private Calendar mDate;
+	private TimeZone mOldZone;
+	private TimeZone mNewZone;
+
+	@Setup
+	public void setUp() {
+		mKeywords = "plain".equals(mKind) ? "androidcomponentlibrary" :
+				"android (library) & tools, q=[1..9]; #tag @user ~ 50% off!";
+		mDeviceId = "358240051111110";
+		mDate = Calendar.getInstance();
+		mOldZone = TimeZone.getTimeZone("GMT+08");
+		mNewZone = TimeZone.getTimeZone("Europe/Berlin");
+	}
+
+	@Benchmark
+	public String encode() {
+		return Utils.encode(mKeywords);
+	}
+
+	@Benchmark
+	public String replaceToEncode() {
+		return Utils.replaceToEncode(mKeywords);
+	}
+
+	@Benchmark
+	public String md5UserId() {
+		return NetworkUtils.md5(mDeviceId);
+	}
+
+	@Benchmark
+	public Calendar transformTime() {
+		return DateTimeUtils.transformTime(mDate, mOldZone, mNewZone);
+	}
+
+	@Benchmark
+	public long transformTimeMillis() {
+		return DateTimeUtils.transformTime(mDate.getTimeInMillis(), mOldZone, mNewZone);
+	}
+}